@@ -0,0 +1,127 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.google.api.services.youtube.model.PlaylistItem;
+import com.google.api.services.youtube.model.PlaylistItemSnippet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link SortMethods} over playlist sizes, title distributions and input orders.
+ * <p>
+ * Run with {@code ./mvnw -Pjmh test-compile exec:exec}; see the jmh profile in pom.xml for the options.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortMethodsBenchmark {
+
+    private static final String[] GUESTS = {"IAN EDWARDS", "JIM NORTON", "BRIAN MOSES", "GREG FITZSIMMONS", "SHANE GILLIS"};
+    private static final String[] WORDS = {"live", "special", "tour", "uncut", "highlights", "roast", "Q&A", "behind"};
+    private static final String[] UNICODE_WORDS = {"Ép.", "Folge", "エピソード", "Эпизод", "حلقة", "回", "Ολοκληρωμένο", "特別編"};
+
+    public enum TitleDistribution {
+        HASHTAGGED,
+        NO_NUMBERS,
+        LONG_UNICODE,
+        MIXED
+    }
+
+    public enum InputOrder {
+        SORTED,
+        REVERSED,
+        RANDOM
+    }
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int size;
+
+    @Param
+    private TitleDistribution titleDistribution;
+
+    @Param
+    private InputOrder inputOrder;
+
+    // The title sort types; the metadata sort types order by keys fetched with videos.list, not by title
+    @Param({"HASHTAG_NUMBER_NUMERICAL", "WHOLE_TITLE_ALPHABETICAL", "NATURAL", "COLLATED", "SERIES_EPISODE_TITLE"})
+    private SortType sortType;
+
+    private List<PlaylistItem> videos;
+    private String[] titles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final var random = new Random(size);
+        final List<PlaylistItem> generatedVideos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            generatedVideos.add(createPlaylistItem(createTitle(random, i)));
+        }
+
+        sort(generatedVideos);
+        switch (inputOrder) {
+            case SORTED -> {
+            }
+            case REVERSED -> Collections.reverse(generatedVideos);
+            case RANDOM -> Collections.shuffle(generatedVideos, random);
+        }
+
+        videos = List.copyOf(generatedVideos);
+        titles = videos.stream().map(video -> video.getSnippet().getTitle()).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public List<PlaylistItem> sortVideos() {
+        return sort(new ArrayList<>(videos));
+    }
+
+    @Benchmark
+    public void extractVideoNumbers(final Blackhole blackhole) {
+        for (final var title : titles) {
+            blackhole.consume(SortMethods.extractVideoNumber(title));
+        }
+    }
+
+    private List<PlaylistItem> sort(final List<PlaylistItem> videosToSort) {
+        return SortMethods.getSorted(videosToSort, sortType, true, Locale.ENGLISH);
+    }
+
+    private String createTitle(final Random random, final int index) {
+        final var distribution = titleDistribution == TitleDistribution.MIXED
+                ? TitleDistribution.values()[random.nextInt(TitleDistribution.values().length - 1)]
+                : titleDistribution;
+
+        return switch (distribution) {
+            case HASHTAGGED -> "KILL TONY #" + (index + 1) + " - " + GUESTS[random.nextInt(GUESTS.length)];
+            case NO_NUMBERS -> WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + GUESTS[random.nextInt(GUESTS.length)];
+            case LONG_UNICODE -> {
+                final var title = new StringBuilder();
+                while (title.length() < 180) {
+                    title.append(UNICODE_WORDS[random.nextInt(UNICODE_WORDS.length)]).append(' ');
+                }
+                yield title.append(index + 1).toString();
+            }
+            case MIXED -> throw new IllegalStateException();
+        };
+    }
+
+    private static PlaylistItem createPlaylistItem(final String videoTitle) {
+        final var snippet = new PlaylistItemSnippet();
+        snippet.setTitle(videoTitle);
+
+        final var playlistItem = new PlaylistItem();
+        playlistItem.setSnippet(snippet);
+
+        return playlistItem;
+    }
+}
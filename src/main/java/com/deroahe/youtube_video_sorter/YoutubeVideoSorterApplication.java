@@ -1,13 +1,20 @@
 package com.deroahe.youtube_video_sorter;
 
+import com.deroahe.youtube_video_sorter.controller.BatchSortCommand;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.ConfigurableApplicationContext;
 
 @SpringBootApplication
 public class YoutubeVideoSorterApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(YoutubeVideoSorterApplication.class, args);
+		ConfigurableApplicationContext context = SpringApplication.run(YoutubeVideoSorterApplication.class, args);
+
+		// The command-line mode is done once its runner returns; stop the executors and report its exit code
+		if (context.getEnvironment().matchesProfiles(BatchSortCommand.PROFILE)) {
+			System.exit(SpringApplication.exit(context));
+		}
 	}
 
 }
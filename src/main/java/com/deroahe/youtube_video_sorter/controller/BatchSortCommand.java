@@ -0,0 +1,90 @@
+package com.deroahe.youtube_video_sorter.controller;
+
+import com.deroahe.youtube_video_sorter.service.BatchSortService;
+import com.deroahe.youtube_video_sorter.support.model.BatchSortRequest;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistSortResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Entry point of the command-line mode (the {@code cli} profile): sorts the batches listed in the job file
+ * ({@code youtube.cli.job-file}, a JSON array of {@link BatchSortRequest}s), prints a summary and exits with 0 if every
+ * playlist was sorted, or 1 otherwise.
+ */
+@Component
+@Profile(BatchSortCommand.PROFILE)
+public class BatchSortCommand implements CommandLineRunner, ExitCodeGenerator {
+
+    public static final String PROFILE = "cli";
+
+    private final BatchSortService batchSortService;
+    private final ObjectMapper objectMapper;
+    private final Path jobFile;
+    private final PrintStream out;
+
+    private int exitCode;
+
+    @Autowired
+    public BatchSortCommand(final BatchSortService batchSortService,
+                            final ObjectMapper objectMapper,
+                            @Value("${youtube.cli.job-file:sort-jobs.json}") final String jobFile) {
+        this(batchSortService, objectMapper, jobFile, System.out);
+    }
+
+    BatchSortCommand(final BatchSortService batchSortService, final ObjectMapper objectMapper, final String jobFile,
+                     final PrintStream out) {
+        this.batchSortService = batchSortService;
+        this.objectMapper = objectMapper;
+        this.jobFile = Path.of(jobFile);
+        this.out = out;
+    }
+
+    @Override
+    public void run(final String... args) throws Exception {
+        final var batches = objectMapper.readValue(jobFile.toFile(), BatchSortRequest[].class);
+
+        final List<PlaylistSortResult> results = new ArrayList<>();
+        for (final var batch : batches) {
+            results.addAll(batchSortService.sortPlaylists(batch));
+        }
+
+        printSummary(results);
+        exitCode = results.stream().allMatch(PlaylistSortResult::sorted) ? 0 : 1;
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    private void printSummary(final List<PlaylistSortResult> results) {
+        long removals = 0;
+        long moves = 0;
+        long quotaCost = 0;
+        for (final var result : results) {
+            if (result.sorted()) {
+                out.printf("%-40s sorted  %6d removals  %6d moves  %8d quota units%n", result.playlistId(),
+                        result.removals(), result.moves(), result.quotaCost());
+            } else {
+                out.printf("%-40s FAILED  %s%n", result.playlistId(), result.error());
+            }
+            removals += result.removals();
+            moves += result.moves();
+            quotaCost += result.quotaCost();
+        }
+
+        out.printf("Sorted %d of %d playlists with %d removals and %d moves (%d quota units)%n",
+                results.stream().filter(PlaylistSortResult::sorted).count(), results.size(), removals, moves,
+                quotaCost);
+    }
+}
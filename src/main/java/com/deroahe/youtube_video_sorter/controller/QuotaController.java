@@ -0,0 +1,23 @@
+package com.deroahe.youtube_video_sorter.controller;
+
+import com.deroahe.youtube_video_sorter.service.QuotaLedger;
+import com.deroahe.youtube_video_sorter.support.model.QuotaUsage;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/youtube/quota")
+public class QuotaController {
+
+    private final QuotaLedger quotaLedger;
+
+    public QuotaController(final QuotaLedger quotaLedger) {
+        this.quotaLedger = quotaLedger;
+    }
+
+    @GetMapping
+    public QuotaUsage getQuotaUsage() {
+        return quotaLedger.getUsage();
+    }
+}
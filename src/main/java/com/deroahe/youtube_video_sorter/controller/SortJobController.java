@@ -0,0 +1,42 @@
+package com.deroahe.youtube_video_sorter.controller;
+
+import com.deroahe.youtube_video_sorter.service.SortJobService;
+import com.deroahe.youtube_video_sorter.support.model.SortJob;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collection;
+
+@RestController
+@RequestMapping("/api/youtube/jobs")
+public class SortJobController {
+
+    private final SortJobService sortJobService;
+
+    public SortJobController(final SortJobService sortJobService) {
+        this.sortJobService = sortJobService;
+    }
+
+    @GetMapping
+    public Collection<SortJob> getJobs() {
+        return sortJobService.getJobs();
+    }
+
+    @GetMapping("/{jobId}")
+    public SortJob getJob(@PathVariable(name = "jobId") final String jobId) {
+        return requireJob(sortJobService.getJob(jobId), jobId);
+    }
+
+    @DeleteMapping("/{jobId}")
+    public SortJob cancelJob(@PathVariable(name = "jobId") final String jobId) {
+        return requireJob(sortJobService.cancel(jobId), jobId);
+    }
+
+    private static SortJob requireJob(final SortJob job, final String jobId) {
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Job " + jobId + " not found");
+        }
+        return job;
+    }
+}
@@ -1,23 +1,48 @@
 package com.deroahe.youtube_video_sorter.controller;
 
+import com.deroahe.youtube_video_sorter.service.BatchSortService;
+import com.deroahe.youtube_video_sorter.service.SortJobService;
+import com.deroahe.youtube_video_sorter.support.model.BatchSortRequest;
+import com.deroahe.youtube_video_sorter.support.model.CleanupPlan;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistSortResult;
+import com.deroahe.youtube_video_sorter.support.model.ReorderPlan;
+import com.deroahe.youtube_video_sorter.support.model.SearchPage;
+import com.deroahe.youtube_video_sorter.support.model.SortJob;
 import com.deroahe.youtube_video_sorter.support.model.SortType;
 import com.deroahe.youtube_video_sorter.service.YouTubePlaylistService;
 import com.google.api.services.youtube.model.Playlist;
 import com.google.api.services.youtube.model.PlaylistItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.GeneralSecurityException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/youtube")
 public class YouTubeController {
 
+    private static final int MAX_SEARCH_LIMIT = 500;
+
     private final YouTubePlaylistService youTubePlaylistService;
+    private final SortJobService sortJobService;
+    private final BatchSortService batchSortService;
+    private final ObjectMapper objectMapper;
 
-    public YouTubeController(final YouTubePlaylistService youTubePlaylistService) {
+    public YouTubeController(final YouTubePlaylistService youTubePlaylistService, final SortJobService sortJobService,
+                             final BatchSortService batchSortService, final ObjectMapper objectMapper) {
         this.youTubePlaylistService = youTubePlaylistService;
+        this.sortJobService = sortJobService;
+        this.batchSortService = batchSortService;
+        this.objectMapper = objectMapper;
     }
 
     @GetMapping
@@ -25,16 +50,104 @@ public class YouTubeController {
         return youTubePlaylistService.getAllPlaylists();
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPlaylists() {
+        return streamNdjson(outputStream -> {
+            try {
+                youTubePlaylistService.streamAllPlaylists(playlists -> writePage(outputStream, playlists));
+            } catch (GeneralSecurityException e) {
+                throw new IOException(e);
+            }
+        });
+    }
+
+    /**
+     * Searches the playlists and videos fetched so far by title, without calling the API.
+     */
+    @GetMapping("/search")
+    public SearchPage search(@RequestParam(name = "q") final String query,
+                             @RequestParam(name = "prefix", required = false, defaultValue = "true") final boolean prefix,
+                             @RequestParam(name = "offset", required = false, defaultValue = "0") final int offset,
+                             @RequestParam(name = "limit", required = false, defaultValue = "50") final int limit) {
+        if (offset < 0 || limit < 1 || limit > MAX_SEARCH_LIMIT) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "offset must be at least 0 and limit between 1 and " + MAX_SEARCH_LIMIT);
+        }
+        return youTubePlaylistService.search(query, prefix, offset, limit);
+    }
+
     @GetMapping("/{playlistId}")
     public List<PlaylistItem> getAllVideoNumbersInPlaylist(@PathVariable(name = "playlistId") final String playlistId) throws GeneralSecurityException, IOException {
         return youTubePlaylistService.getVideosInPlaylist(playlistId);
     }
 
-    @PostMapping("/{playlistId}")
-    public void sortPlaylist(@PathVariable(name = "playlistId") final String playlistId,
-                             @RequestParam(name = "sortType", required = false, defaultValue = "WHOLE_TITLE_ALPHABETICAL") final SortType sortType,
-                             @RequestParam(name = "ascending", required = false, defaultValue = "true") boolean ascending)
+    @GetMapping(value = "/{playlistId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllVideosInPlaylist(
+            @PathVariable(name = "playlistId") final String playlistId) {
+        return streamNdjson(outputStream -> {
+            try {
+                youTubePlaylistService.streamVideosInPlaylist(playlistId, videos -> writePage(outputStream, videos));
+            } catch (GeneralSecurityException e) {
+                throw new IOException(e);
+            }
+        });
+    }
+
+    @GetMapping("/{playlistId}/plan")
+    public ReorderPlan getReorderPlan(@PathVariable(name = "playlistId") final String playlistId,
+                                      @RequestParam(name = "sortType", required = false, defaultValue = "WHOLE_TITLE_ALPHABETICAL") final SortType sortType,
+                                      @RequestParam(name = "ascending", required = false, defaultValue = "true") boolean ascending)
+            throws GeneralSecurityException, IOException {
+        return youTubePlaylistService.getReorderPlan(playlistId, sortType, ascending);
+    }
+
+    @GetMapping("/{playlistId}/cleanup")
+    public CleanupPlan getCleanupPlan(@PathVariable(name = "playlistId") final String playlistId)
             throws GeneralSecurityException, IOException {
-        youTubePlaylistService.updatePlaylistOrder(playlistId, sortType, ascending);
+        return youTubePlaylistService.getCleanupPlan(playlistId);
+    }
+
+    @PostMapping("/{playlistId}/cleanup")
+    public CleanupPlan cleanUpPlaylist(@PathVariable(name = "playlistId") final String playlistId)
+            throws GeneralSecurityException, IOException {
+        return youTubePlaylistService.cleanUpPlaylist(playlistId);
+    }
+
+    @PostMapping("/{playlistId}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public SortJob sortPlaylist(@PathVariable(name = "playlistId") final String playlistId,
+                                @RequestParam(name = "sortType", required = false, defaultValue = "WHOLE_TITLE_ALPHABETICAL") final SortType sortType,
+                                @RequestParam(name = "ascending", required = false, defaultValue = "true") boolean ascending)
+            throws IOException {
+        try {
+            return sortJobService.submit(playlistId, sortType, ascending);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many sort jobs queued", e);
+        }
+    }
+
+    @PostMapping("/batch")
+    public List<PlaylistSortResult> sortPlaylists(@RequestBody final BatchSortRequest request)
+            throws GeneralSecurityException, IOException, InterruptedException {
+        return batchSortService.sortPlaylists(request);
+    }
+
+    /**
+     * Writes one JSON object per line and flushes, so the client gets every page as soon as it is fetched. Writing
+     * blocks while the client is not reading, which in turn holds back fetching the next page.
+     */
+    /**
+     * A bare StreamingResponseBody gets no content type; {@code produces} only matches it against the Accept header.
+     */
+    private static ResponseEntity<StreamingResponseBody> streamNdjson(final StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private void writePage(final OutputStream outputStream, final List<?> items) throws IOException {
+        for (final var item : items) {
+            outputStream.write(objectMapper.writeValueAsBytes(item));
+            outputStream.write('\n');
+        }
+        outputStream.flush();
     }
 }
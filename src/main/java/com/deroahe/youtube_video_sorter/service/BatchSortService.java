@@ -0,0 +1,102 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.BatchSortRequest;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistSortResult;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Sorts many playlists at once, one virtual thread per playlist.
+ * <p>
+ * At most {@code youtube.batch.max-concurrent-playlists} playlists are fetched and updated at the same time; the
+ * per-account request rate is enforced by {@link YouTubeRequestExecutor}. The updates of each playlist still run one
+ * after the other, under the playlist's lock, so positions stay consistent.
+ */
+@Service
+public class BatchSortService {
+
+    private static final Logger LOGGER = getLogger(BatchSortService.class);
+
+    private final YouTubePlaylistService youTubePlaylistService;
+    private final Semaphore concurrentPlaylists;
+
+    public BatchSortService(final YouTubePlaylistService youTubePlaylistService,
+                            @Value("${youtube.batch.max-concurrent-playlists:8}") final int maxConcurrentPlaylists) {
+        this.youTubePlaylistService = youTubePlaylistService;
+        this.concurrentPlaylists = new Semaphore(maxConcurrentPlaylists);
+    }
+
+    public List<PlaylistSortResult> sortPlaylists(final BatchSortRequest request)
+            throws GeneralSecurityException, IOException, InterruptedException {
+        final var playlistIds = getPlaylistIds(request);
+        final var sortType = request.sortType() == null ? SortType.WHOLE_TITLE_ALPHABETICAL : request.sortType();
+        final var ascending = request.ascending() == null || request.ascending();
+        final var cleanUp = request.cleanUp() != null && request.cleanUp();
+
+        LOGGER.info("Sorting {} playlists", playlistIds.size());
+
+        final List<Future<PlaylistSortResult>> futures = new ArrayList<>();
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (final var playlistId : playlistIds) {
+                futures.add(executor.submit(() -> sortPlaylist(playlistId, sortType, ascending, cleanUp)));
+            }
+        }
+
+        final List<PlaylistSortResult> results = new ArrayList<>();
+        for (final var future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        LOGGER.info("Sorted {} of {} playlists", results.stream().filter(PlaylistSortResult::sorted).count(), results.size());
+        return results;
+    }
+
+    private PlaylistSortResult sortPlaylist(final String playlistId, final SortType sortType, final boolean ascending,
+                                            final boolean cleanUp) throws InterruptedException {
+        concurrentPlaylists.acquire();
+        try {
+            return youTubePlaylistService.updatePlaylistOrder(playlistId, sortType, ascending, cleanUp);
+        } catch (Exception e) {
+            LOGGER.error("Sorting playlist {} failed", playlistId, e);
+            return PlaylistSortResult.failed(playlistId, e);
+        } finally {
+            concurrentPlaylists.release();
+        }
+    }
+
+    private List<String> getPlaylistIds(final BatchSortRequest request) throws GeneralSecurityException, IOException {
+        final var playlistIds = new LinkedHashSet<String>();
+        if (request.playlistIds() != null) {
+            playlistIds.addAll(request.playlistIds());
+        }
+
+        if (request.titleFilter() != null && !request.titleFilter().isBlank()) {
+            final var titleFilter = request.titleFilter().toLowerCase(Locale.ROOT);
+            for (final var playlist : youTubePlaylistService.getAllPlaylists(true)) {
+                if (playlist.getSnippet().getTitle().toLowerCase(Locale.ROOT).contains(titleFilter)) {
+                    playlistIds.add(playlist.getId());
+                }
+            }
+        }
+        return List.copyOf(playlistIds);
+    }
+}
@@ -0,0 +1,307 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.CompactPlaylist;
+import com.deroahe.youtube_video_sorter.support.model.SearchHit;
+import com.deroahe.youtube_video_sorter.support.model.SearchPage;
+import com.google.api.services.youtube.model.Playlist;
+import com.google.api.services.youtube.model.PlaylistItem;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of the titles of the playlists and videos fetched by {@link YouTubePlaylistService}, so
+ * lookups across playlists don't need any API calls.
+ * <p>
+ * Titles are split into tokens at every character that isn't a letter or digit, lowercased and stripped of accents.
+ * Tokens are kept in a sorted map, so a query token matches either the tokens equal to it or, with prefix matching,
+ * the range of tokens starting with it. A title matches a query if every query token matches one of its tokens.
+ * <p>
+ * The index is updated page by page as playlists and videos are fetched, whether from the API or from a snapshot; at
+ * the end of a complete fetch the entries that weren't in it are dropped. Sorts and cleanups update the positions and
+ * entries they change. It only knows what has been fetched since startup.
+ */
+@Service
+public class PlaylistSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final String PLAYLIST_KEY_PREFIX = "playlist:";
+    private static final String ITEM_KEY_PREFIX = "item:";
+
+    private static final Comparator<Document> HIT_ORDER = Comparator
+            .comparing((Document document) -> document.playlistItemId() != null)
+            .thenComparing(Document::playlistId)
+            .thenComparingLong(Document::position);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Set<String>> postings = new TreeMap<>();
+    private final Map<String, Document> documents = new HashMap<>();
+    private final Map<String, Set<String>> itemKeysByPlaylistId = new HashMap<>();
+
+    /**
+     * A playlist ({@code playlistItemId} null) or a video of a playlist, with the tokens of its title.
+     */
+    private record Document(String playlistId, String playlistItemId, String videoId, String title, long position,
+                            List<String> tokens) {
+    }
+
+    public void putPlaylists(final List<Playlist> playlists) {
+        lock.writeLock().lock();
+        try {
+            for (final var playlist : playlists) {
+                final var title = playlist.getSnippet() == null ? null : playlist.getSnippet().getTitle();
+                put(PLAYLIST_KEY_PREFIX + playlist.getId(), new Document(playlist.getId(), null, null, title, -1,
+                        tokenize(title)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the playlists, and their videos, that weren't in a complete fetch of all playlists.
+     */
+    public void retainPlaylists(final Set<String> playlistIds) {
+        lock.writeLock().lock();
+        try {
+            final List<String> removedPlaylistIds = new ArrayList<>();
+            for (final var document : documents.values()) {
+                if (document.playlistItemId() == null && !playlistIds.contains(document.playlistId())) {
+                    removedPlaylistIds.add(document.playlistId());
+                }
+            }
+            for (final var playlistId : removedPlaylistIds) {
+                remove(PLAYLIST_KEY_PREFIX + playlistId);
+                final var itemKeys = itemKeysByPlaylistId.remove(playlistId);
+                if (itemKeys != null) {
+                    itemKeys.forEach(this::remove);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void putPlaylistItems(final String playlistId, final List<PlaylistItem> items) {
+        lock.writeLock().lock();
+        try {
+            final var itemKeys = itemKeysByPlaylistId.computeIfAbsent(playlistId, id -> new HashSet<>());
+            for (final var item : items) {
+                final var snippet = item.getSnippet();
+                final var resourceId = snippet.getResourceId();
+                final var key = ITEM_KEY_PREFIX + item.getId();
+                final var position = snippet.getPosition() == null ? CompactPlaylist.UNKNOWN_POSITION : snippet.getPosition();
+                put(key, new Document(playlistId, item.getId(), resourceId == null ? null : resourceId.getVideoId(),
+                        snippet.getTitle(), position, tokenize(snippet.getTitle())));
+                itemKeys.add(key);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the videos of the playlist that weren't in a complete fetch of it.
+     */
+    public void retainPlaylistItems(final String playlistId, final Set<String> playlistItemIds) {
+        lock.writeLock().lock();
+        try {
+            final var itemKeys = itemKeysByPlaylistId.get(playlistId);
+            if (itemKeys == null) {
+                return;
+            }
+            itemKeys.removeIf(key -> {
+                if (playlistItemIds.contains(key.substring(ITEM_KEY_PREFIX.length()))) {
+                    return false;
+                }
+                remove(key);
+                return true;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops deleted videos of the playlist and moves the ones after them up, like the API does.
+     */
+    public void removePlaylistItems(final String playlistId, final Collection<String> playlistItemIds) {
+        lock.writeLock().lock();
+        try {
+            final var itemKeys = itemKeysByPlaylistId.get(playlistId);
+            if (itemKeys == null) {
+                return;
+            }
+            for (final var playlistItemId : playlistItemIds) {
+                final var key = ITEM_KEY_PREFIX + playlistItemId;
+                if (itemKeys.remove(key)) {
+                    remove(key);
+                }
+            }
+
+            final var remaining = itemKeys.stream()
+                    .map(documents::get)
+                    .sorted(Comparator.comparingLong(Document::position))
+                    .toList();
+            for (int position = 0; position < remaining.size(); position++) {
+                setPosition(remaining.get(position), position);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sets the positions of the videos of the playlist to the order a sort left them in.
+     */
+    public void updatePositions(final String playlistId, final List<String> sortedPlaylistItemIds) {
+        lock.writeLock().lock();
+        try {
+            for (int position = 0; position < sortedPlaylistItemIds.size(); position++) {
+                final var document = documents.get(ITEM_KEY_PREFIX + sortedPlaylistItemIds.get(position));
+                if (document != null && document.playlistId().equals(playlistId)) {
+                    setPosition(document, position);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param prefix whether query tokens also match the tokens they are a prefix of ("kil" matches "Kill Tony")
+     * @return the matching playlists, then the matching videos by playlist and position, from {@code offset} on
+     */
+    public SearchPage search(final String query, final boolean prefix, final int offset, final int limit) {
+        final var queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return new SearchPage(query, 0, offset, limit, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<String> matchingKeys = null;
+            for (final var queryToken : queryTokens) {
+                final Set<String> tokenMatchingKeys = new HashSet<>();
+                if (prefix) {
+                    postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).values()
+                            .forEach(tokenMatchingKeys::addAll);
+                } else {
+                    tokenMatchingKeys.addAll(postings.getOrDefault(queryToken, Set.of()));
+                }
+
+                if (matchingKeys == null) {
+                    matchingKeys = tokenMatchingKeys;
+                } else {
+                    matchingKeys.retainAll(tokenMatchingKeys);
+                }
+                if (matchingKeys.isEmpty()) {
+                    break;
+                }
+            }
+
+            final var matches = matchingKeys.stream()
+                    .map(documents::get)
+                    .sorted(HIT_ORDER)
+                    .toList();
+            // In long, since offset + limit can overflow int
+            final var hits = matches.subList(Math.min(offset, matches.size()),
+                            (int) Math.min((long) offset + limit, matches.size()))
+                    .stream()
+                    .map(this::toHit)
+                    .toList();
+            return new SearchPage(query, matches.size(), offset, limit, hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private SearchHit toHit(final Document document) {
+        final var playlist = documents.get(PLAYLIST_KEY_PREFIX + document.playlistId());
+        final var playlistTitle = playlist == null ? null : playlist.title();
+        return document.playlistItemId() == null
+                ? new SearchHit(document.playlistId(), playlistTitle, null, null, document.title(), null)
+                : new SearchHit(document.playlistId(), playlistTitle, document.playlistItemId(), document.videoId(),
+                        document.title(), document.position() == CompactPlaylist.UNKNOWN_POSITION ? null : document.position());
+    }
+
+    private void put(final String key, final Document document) {
+        final var previous = documents.get(key);
+        if (previous != null && previous.tokens().equals(document.tokens())) {
+            documents.put(key, document);
+            return;
+        }
+
+        remove(key);
+        documents.put(key, document);
+        for (final var token : document.tokens()) {
+            postings.computeIfAbsent(token, t -> new HashSet<>()).add(key);
+        }
+    }
+
+    private void remove(final String key) {
+        final var document = documents.remove(key);
+        if (document == null) {
+            return;
+        }
+        for (final var token : document.tokens()) {
+            final var keys = postings.get(token);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    private void setPosition(final Document document, final long position) {
+        documents.put(document.playlistItemId() == null
+                        ? PLAYLIST_KEY_PREFIX + document.playlistId()
+                        : ITEM_KEY_PREFIX + document.playlistItemId(),
+                new Document(document.playlistId(), document.playlistItemId(), document.videoId(), document.title(),
+                        position, document.tokens()));
+    }
+
+    /**
+     * @return the distinct tokens of the text, lowercased and without accents
+     */
+    static List<String> tokenize(final String text) {
+        if (text == null) {
+            return List.of();
+        }
+
+        final var normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        final var tokens = new LinkedHashSet<String>();
+        int tokenStart = -1;
+        int index = 0;
+        while (index < normalized.length()) {
+            final var codePoint = normalized.codePointAt(index);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (tokenStart < 0) {
+                    tokenStart = index;
+                }
+            } else if (tokenStart >= 0) {
+                tokens.add(normalized.substring(tokenStart, index));
+                tokenStart = -1;
+            }
+            index += Character.charCount(codePoint);
+        }
+        if (tokenStart >= 0) {
+            tokens.add(normalized.substring(tokenStart));
+        }
+        return List.copyOf(tokens);
+    }
+}
@@ -0,0 +1,173 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.PlaylistSnapshot;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Two-tier store of the last fetched pages of the playlists and playlist items collections.
+ * <p>
+ * The memory tier is an LRU map bounded by the total number of pages it holds; the disk tier keeps one JSON file per
+ * snapshot, so snapshots survive restarts. Snapshots younger than their TTL are served as they are to reads; older
+ * ones, and every snapshot a sort or cleanup plans from, are revalidated page by page with their ETags by
+ * {@link YouTubePlaylistService}.
+ */
+@Service
+public class PlaylistSnapshotCache {
+
+    private static final Logger LOGGER = getLogger(PlaylistSnapshotCache.class);
+
+    private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
+    private static final String PLAYLISTS_KEY = "playlists";
+    private static final String PLAYLIST_ITEMS_KEY_PREFIX = "playlist-items-";
+    private static final String SORT_FIELDS_KEY_PREFIX = "sort-fields-";
+
+    private final Path directory;
+    private final Duration playlistsTtl;
+    private final Duration playlistItemsTtl;
+    private final int maxMemoryPages;
+
+    private final LinkedHashMap<String, PlaylistSnapshot<?>> memorySnapshots = new LinkedHashMap<>(16, 0.75f, true);
+    private int memoryPages;
+
+    public PlaylistSnapshotCache(@Value("${youtube.snapshot-cache.directory:snapshots}") final String directory,
+                                 @Value("${youtube.snapshot-cache.playlists-ttl:PT10M}") final Duration playlistsTtl,
+                                 @Value("${youtube.snapshot-cache.playlist-items-ttl:PT10M}") final Duration playlistItemsTtl,
+                                 @Value("${youtube.snapshot-cache.max-memory-pages:2000}") final int maxMemoryPages) {
+        this.directory = Path.of(directory);
+        this.playlistsTtl = playlistsTtl;
+        this.playlistItemsTtl = playlistItemsTtl;
+        this.maxMemoryPages = maxMemoryPages;
+    }
+
+    public static String getPlaylistsKey() {
+        return PLAYLISTS_KEY;
+    }
+
+    public static String getPlaylistItemsKey(final String playlistId) {
+        return PLAYLIST_ITEMS_KEY_PREFIX + playlistId;
+    }
+
+    /**
+     * The key of the playlist items pages fetched with only the fields sorting needs, which are kept apart from the
+     * full pages.
+     */
+    public static String getSortFieldsKey(final String playlistId) {
+        return SORT_FIELDS_KEY_PREFIX + playlistId;
+    }
+
+    public boolean isFresh(final String key, final PlaylistSnapshot<?> snapshot) {
+        final var ttl = PLAYLISTS_KEY.equals(key) ? playlistsTtl : playlistItemsTtl;
+        return snapshot.isFresh(ttl, Instant.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends GenericJson> PlaylistSnapshot<T> get(final String key, final Class<T> pageClass) {
+        synchronized (memorySnapshots) {
+            final var snapshot = memorySnapshots.get(key);
+            if (snapshot != null) {
+                return (PlaylistSnapshot<T>) snapshot;
+            }
+        }
+
+        final var snapshot = readFromDisk(key, pageClass);
+        if (snapshot != null) {
+            putInMemory(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    public <T extends GenericJson> void put(final String key, final List<T> pages) {
+        final var snapshot = new PlaylistSnapshot<>(List.copyOf(pages), Instant.now());
+        putInMemory(key, snapshot);
+        writeToDisk(key, snapshot);
+    }
+
+    public void invalidate(final String key) {
+        synchronized (memorySnapshots) {
+            final var snapshot = memorySnapshots.remove(key);
+            if (snapshot != null) {
+                memoryPages -= snapshot.pages().size();
+            }
+        }
+
+        try {
+            Files.deleteIfExists(getFile(key));
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete snapshot {}", key, e);
+        }
+        LOGGER.info("Invalidated snapshot {}", key);
+    }
+
+    private void putInMemory(final String key, final PlaylistSnapshot<?> snapshot) {
+        synchronized (memorySnapshots) {
+            final var previousSnapshot = memorySnapshots.put(key, snapshot);
+            if (previousSnapshot != null) {
+                memoryPages -= previousSnapshot.pages().size();
+            }
+            memoryPages += snapshot.pages().size();
+
+            final var iterator = memorySnapshots.entrySet().iterator();
+            while (memoryPages > maxMemoryPages && iterator.hasNext()) {
+                final Map.Entry<String, PlaylistSnapshot<?>> eldest = iterator.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                memoryPages -= eldest.getValue().pages().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    private <T extends GenericJson> PlaylistSnapshot<T> readFromDisk(final String key, final Class<T> pageClass) {
+        final var file = getFile(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try (final var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            final List<T> pages = new ArrayList<>();
+            JSON_FACTORY.createJsonParser(reader).parseArrayAndClose(pages, pageClass);
+            return new PlaylistSnapshot<>(List.copyOf(pages), Files.getLastModifiedTime(file).toInstant());
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Could not read snapshot {}, ignoring it", key, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(final String key, final PlaylistSnapshot<?> snapshot) {
+        final var file = getFile(key);
+        try {
+            Files.createDirectories(directory);
+            final var temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            Files.writeString(temporaryFile, JSON_FACTORY.toString(snapshot.pages()), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(temporaryFile, FileTime.from(snapshot.fetchedAt()));
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write snapshot {}", key, e);
+        }
+    }
+
+    private Path getFile(final String key) {
+        return directory.resolve(key.replaceAll("[^A-Za-z0-9_-]", "_") + ".json");
+    }
+}
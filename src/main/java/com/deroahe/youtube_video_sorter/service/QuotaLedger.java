@@ -0,0 +1,347 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.exception.QuotaBudgetExceededException;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.deroahe.youtube_video_sorter.support.model.QuotaUsage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Counts the quota units spent on every YouTube Data API call of the current quota day.
+ * <p>
+ * The API resets quotas at midnight Pacific time, so that's when the ledger starts a new day. Usage is counted in
+ * memory under a lock rather than a monitor, so the virtual threads recording calls don't pin their carrier threads,
+ * and written to disk every {@code youtube.quota.flush-interval} when it changed and at shutdown, so restarts don't
+ * forget what was spent and a crash forgets at most the calls of the last interval.
+ * <p>
+ * Work that makes many calls reserves their units up front ({@link #reserve}), so that sorts admitted at the same time
+ * can't together spend more than is left. Calls recorded on the thread holding a reservation draw from it, and closing
+ * the reservation returns what wasn't spent.
+ */
+@Service
+public class QuotaLedger {
+
+    private static final Logger LOGGER = getLogger(QuotaLedger.class);
+
+    private static final ZoneId QUOTA_ZONE = ZoneId.of("America/Los_Angeles");
+
+    private final long dailyLimit;
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Map<ApiOperation, Counter> unitCounters = new EnumMap<>(ApiOperation.class);
+    private final Lock lock = new ReentrantLock();
+    private final Lock fileLock = new ReentrantLock();
+    private final ScheduledExecutorService flushScheduler;
+    private final ThreadLocal<Reservation> currentReservation = new ThreadLocal<>();
+
+    private LocalDate quotaDay;
+    private long unitsUsed;
+    private long unitsReserved;
+    private boolean unsaved;
+    private final Map<ApiOperation, Long> callsByOperation = new EnumMap<>(ApiOperation.class);
+
+    @Autowired
+    public QuotaLedger(@Value("${youtube.quota.daily-limit:10000}") final long dailyLimit,
+                       @Value("${youtube.quota.file:quota/usage.json}") final String file,
+                       @Value("${youtube.quota.flush-interval:PT1S}") final Duration flushInterval,
+                       final ObjectMapper objectMapper,
+                       final MeterRegistry meterRegistry) {
+        this(dailyLimit, file, flushInterval, objectMapper, meterRegistry, Clock.systemUTC());
+    }
+
+    QuotaLedger(final long dailyLimit, final String file, final Duration flushInterval, final ObjectMapper objectMapper,
+                final MeterRegistry meterRegistry, final Clock clock) {
+        this.dailyLimit = dailyLimit;
+        this.file = Path.of(file);
+        this.objectMapper = objectMapper;
+        this.clock = clock.withZone(QUOTA_ZONE);
+
+        load();
+
+        for (final var operation : ApiOperation.values()) {
+            unitCounters.put(operation, Counter.builder("youtube.quota.units")
+                    .description("Quota units spent since startup")
+                    .tag("operation", operation.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("youtube.quota.used", this, ledger -> ledger.getUsage().unitsUsed())
+                .description("Quota units spent on the current quota day")
+                .register(meterRegistry);
+        Gauge.builder("youtube.quota.remaining", this, ledger -> ledger.getUsage().unitsRemaining())
+                .description("Quota units left on the current quota day")
+                .register(meterRegistry);
+
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "quota-ledger-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final var flushMillis = flushInterval.toMillis();
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void record(final ApiOperation operation) {
+        lock.lock();
+        try {
+            rollOver();
+            unitsUsed += operation.getQuotaCost();
+            callsByOperation.merge(operation, 1L, Long::sum);
+            final var reservation = currentReservation.get();
+            if (reservation != null) {
+                reservation.draw(operation.getQuotaCost());
+            }
+            unsaved = true;
+        } finally {
+            lock.unlock();
+        }
+
+        unitCounters.get(operation).increment(operation.getQuotaCost());
+    }
+
+    /**
+     * Called when the API reports the quota as exceeded, which it knows better than the ledger does (e.g. when other
+     * applications share the project), so that no more work is admitted until the reset.
+     */
+    public void markExhausted() {
+        lock.lock();
+        try {
+            rollOver();
+            if (unitsUsed < dailyLimit) {
+                LOGGER.warn("API reports quota exceeded at {} of {} counted units", unitsUsed, dailyLimit);
+                unitsUsed = dailyLimit;
+                unsaved = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        flush();
+    }
+
+    public long getRemainingUnits() {
+        lock.lock();
+        try {
+            rollOver();
+            return getUnitsRemaining();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public QuotaUsage getUsage() {
+        lock.lock();
+        try {
+            rollOver();
+            return new QuotaUsage(quotaDay, unitsUsed, unitsReserved, dailyLimit, getUnitsRemaining(), getResetsAt(),
+                    new EnumMap<>(callsByOperation));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDailyLimit() {
+        return dailyLimit;
+    }
+
+    /**
+     * Sets aside {@code unitsNeeded} units for the calls the current thread is about to make.
+     *
+     * @throws QuotaBudgetExceededException if fewer than {@code unitsNeeded} units are left for the day
+     */
+    public Reservation reserve(final long unitsNeeded) {
+        lock.lock();
+        try {
+            rollOver();
+            final var unitsRemaining = getUnitsRemaining();
+            if (unitsNeeded > unitsRemaining) {
+                throw new QuotaBudgetExceededException(unitsNeeded, unitsRemaining, getResetsAt());
+            }
+            return new Reservation(unitsNeeded);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets aside the units of as many calls of the operation, up to {@code calls}, as are left for the day; possibly
+     * none.
+     */
+    public Reservation reserveUpTo(final ApiOperation operation, final long calls) {
+        lock.lock();
+        try {
+            rollOver();
+            final var affordableCalls = Math.min(calls, getUnitsRemaining() / operation.getQuotaCost());
+            return new Reservation(affordableCalls * operation.getQuotaCost());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Instant getResetsAt() {
+        return LocalDate.now(clock).plusDays(1).atStartOfDay(QUOTA_ZONE).toInstant();
+    }
+
+    public Duration getTimeUntilReset() {
+        return Duration.between(clock.instant(), getResetsAt());
+    }
+
+    /**
+     * Writes the usage to disk if it changed since the last write. Writes are serialized, so an older usage never
+     * overwrites a newer one.
+     */
+    void flush() {
+        fileLock.lock();
+        try {
+            final QuotaUsage usage;
+            lock.lock();
+            try {
+                if (!unsaved) {
+                    return;
+                }
+                unsaved = false;
+                usage = getUsage();
+            } finally {
+                lock.unlock();
+            }
+            save(usage);
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdownNow();
+        flush();
+    }
+
+    private long getUnitsRemaining() {
+        return Math.max(0, dailyLimit - unitsUsed - unitsReserved);
+    }
+
+    private void rollOver() {
+        final var today = LocalDate.now(clock);
+        if (!today.equals(quotaDay)) {
+            if (quotaDay != null) {
+                LOGGER.info("Quota day {} ended with {} units used", quotaDay, unitsUsed);
+            }
+            quotaDay = today;
+            unitsUsed = 0;
+            callsByOperation.clear();
+        }
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            rollOver();
+            return;
+        }
+
+        try {
+            final var usage = objectMapper.readValue(file.toFile(), QuotaUsage.class);
+            quotaDay = usage.quotaDay();
+            unitsUsed = usage.unitsUsed();
+            if (usage.callsByOperation() != null) {
+                callsByOperation.putAll(usage.callsByOperation());
+            }
+            rollOver();
+            LOGGER.info("Loaded quota usage: {} units used on {}", unitsUsed, quotaDay);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read quota usage from {}, starting from 0", file, e);
+            rollOver();
+        }
+    }
+
+    private void save(final QuotaUsage usage) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            final var temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(temporaryFile.toFile(), usage);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write quota usage to {}", file, e);
+        }
+    }
+
+    /**
+     * Units set aside for the calls of one piece of work. It belongs to the thread that made it, which must also close
+     * it; reservations made while another is open take over until they are closed.
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private final long units;
+        private final Reservation previous;
+        private long unitsLeft;
+        private boolean closed;
+
+        private Reservation(final long units) {
+            this.units = units;
+            this.unitsLeft = units;
+            this.previous = currentReservation.get();
+            unitsReserved += units;
+            currentReservation.set(this);
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        private void draw(final long cost) {
+            final var drawn = Math.min(cost, unitsLeft);
+            unitsLeft -= drawn;
+            unitsReserved -= drawn;
+        }
+
+        /**
+         * Returns the units that weren't spent.
+         */
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                unitsReserved -= unitsLeft;
+                unitsLeft = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            if (previous == null) {
+                currentReservation.remove();
+            } else {
+                currentReservation.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.PlaylistMove;
+import com.deroahe.youtube_video_sorter.support.model.ReorderPlan;
+import com.deroahe.youtube_video_sorter.support.model.SortJob;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.deroahe.youtube_video_sorter.support.model.SortedOrder;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Write-ahead journal of sort jobs, one append-only file of JSON lines per unfinished job.
+ * <p>
+ * A job's file starts with the job itself, followed by its reorder plan (with the order it leaves the playlist in) once
+ * planned and one line per applied move. A deferred job plans again when it resumes, so its file can hold several
+ * plans; the moves applied after a plan refer to that plan.
+ * Lines are synced to disk before the job goes on, and the file is deleted when the job finishes, so the files left
+ * after a crash are exactly the jobs to resume.
+ */
+@Service
+public class SortJobJournal {
+
+    private static final Logger LOGGER = getLogger(SortJobJournal.class);
+
+    private static final String JOURNAL_FILE_EXTENSION = ".journal";
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    public SortJobJournal(@Value("${youtube.jobs.directory:jobs}") final String directory, final ObjectMapper objectMapper) {
+        this.directory = Path.of(directory);
+        this.objectMapper = objectMapper;
+    }
+
+    public void writeJob(final SortJob job) throws IOException {
+        Files.createDirectories(directory);
+        append(job.getId(), new Entry(EntryType.JOB, job.getPlaylistId(), job.getSortType(), job.isAscending(), null, null,
+                null, null));
+    }
+
+    public void writePlan(final SortJob job, final ReorderPlan plan) throws IOException {
+        append(job.getId(), new Entry(EntryType.PLAN, null, null, null, plan.videoCount(), plan.moves(),
+                plan.sortedOrder(), null));
+    }
+
+    public void writeMoveApplied(final SortJob job, final int moveIndex) throws IOException {
+        append(job.getId(), new Entry(EntryType.MOVE_APPLIED, null, null, null, null, null, null, moveIndex));
+    }
+
+    public void delete(final SortJob job) {
+        try {
+            Files.deleteIfExists(getFile(job.getId()));
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete journal of job {}", job.getId(), e);
+        }
+    }
+
+    /**
+     * Reads back the jobs that didn't finish, with their plan and applied moves, if they got that far.
+     */
+    public List<SortJob> readUnfinishedJobs() {
+        final List<SortJob> jobs = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return jobs;
+        }
+
+        try (final var files = Files.list(directory)) {
+            for (final var file : files.filter(path -> path.toString().endsWith(JOURNAL_FILE_EXTENSION)).toList()) {
+                final var job = readJob(file);
+                if (job != null) {
+                    jobs.add(job);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not list journals in {}", directory, e);
+        }
+        return jobs;
+    }
+
+    private SortJob readJob(final Path file) {
+        final var fileName = file.getFileName().toString();
+        final var jobId = fileName.substring(0, fileName.length() - JOURNAL_FILE_EXTENSION.length());
+
+        try {
+            SortJob job = null;
+            for (final var line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                final Entry entry;
+                try {
+                    entry = objectMapper.readValue(line, Entry.class);
+                } catch (IOException e) {
+                    // A torn last line from a crash in the middle of a write
+                    LOGGER.warn("Ignoring unreadable line in journal of job {}", jobId);
+                    break;
+                }
+
+                switch (entry.type()) {
+                    case JOB -> job = new SortJob(jobId, entry.playlistId(), entry.sortType(), entry.ascending());
+                    case PLAN -> {
+                        final var plan = new ReorderPlan(job.getPlaylistId(), entry.videoCount(), entry.moves(),
+                                entry.sortedOrder());
+                        if (job.getPlan() == null) {
+                            job.setPlan(plan);
+                        } else {
+                            job.replan(plan);
+                        }
+                    }
+                    case MOVE_APPLIED -> job.setMovesApplied(entry.moveIndex() + 1);
+                }
+            }
+            return job;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read journal of job {}, ignoring it", jobId, e);
+            return null;
+        }
+    }
+
+    private void append(final String jobId, final Entry entry) throws IOException {
+        final var line = objectMapper.writeValueAsString(entry) + "\n";
+        Files.writeString(getFile(jobId), line, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND, StandardOpenOption.DSYNC);
+    }
+
+    private Path getFile(final String jobId) {
+        return directory.resolve(jobId + JOURNAL_FILE_EXTENSION);
+    }
+
+    private enum EntryType {
+        JOB,
+        PLAN,
+        MOVE_APPLIED
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record Entry(EntryType type,
+                         String playlistId,
+                         SortType sortType,
+                         Boolean ascending,
+                         Integer videoCount,
+                         List<PlaylistMove> moves,
+                         SortedOrder sortedOrder,
+                         Integer moveIndex) {
+    }
+}
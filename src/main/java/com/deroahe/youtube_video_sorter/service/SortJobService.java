@@ -0,0 +1,311 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.exception.QuotaBudgetExceededException;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.deroahe.youtube_video_sorter.support.model.SortJob;
+import com.deroahe.youtube_video_sorter.support.model.SortJobStatus;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Runs playlist sorts in the background on a bounded pool of workers.
+ * <p>
+ * Every job is journaled by {@link SortJobJournal} before it is planned, once it is planned and after every applied
+ * move. Jobs left unfinished by a crash or shutdown are resumed on startup from the first move that wasn't recorded
+ * as applied, reusing the journaled plan instead of fetching the playlist again.
+ * <p>
+ * A planned job reserves the quota of as many of its remaining moves as is left for the day, applies those and is
+ * deferred until the quota resets for the rest, so plans costing more than a whole day's quota finish over several
+ * days. A deferred job doesn't hold the playlist's lock while it waits, and videos may be added, deleted or moved in
+ * the meantime, so it fetches and plans the playlist again when it resumes.
+ */
+@Service
+public class SortJobService {
+
+    private static final Logger LOGGER = getLogger(SortJobService.class);
+
+    private final YouTubePlaylistService youTubePlaylistService;
+    private final SortJobJournal sortJobJournal;
+    private final QuotaLedger quotaLedger;
+    private final boolean resumeOnStartup;
+    private final Duration finishedJobRetention;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService deferredJobScheduler;
+
+    private final Map<String, SortJob> jobs = new ConcurrentHashMap<>();
+    /**
+     * Guards the transitions out of {@link SortJobStatus#DEFERRED}, so a job cancelled while deferred isn't also
+     * resumed by its scheduled task.
+     */
+    private final Lock deferredJobsLock = new ReentrantLock();
+    private final Map<String, ScheduledFuture<?>> deferredJobTasks = new ConcurrentHashMap<>();
+    private volatile boolean shuttingDown;
+
+    public SortJobService(final YouTubePlaylistService youTubePlaylistService,
+                          final SortJobJournal sortJobJournal,
+                          final QuotaLedger quotaLedger,
+                          @Value("${youtube.jobs.threads:2}") final int threads,
+                          @Value("${youtube.jobs.queue-capacity:100}") final int queueCapacity,
+                          @Value("${youtube.jobs.resume-on-startup:true}") final boolean resumeOnStartup,
+                          @Value("${youtube.jobs.finished-job-retention:PT24H}") final Duration finishedJobRetention) {
+        this.youTubePlaylistService = youTubePlaylistService;
+        this.sortJobJournal = sortJobJournal;
+        this.quotaLedger = quotaLedger;
+        this.resumeOnStartup = resumeOnStartup;
+        this.finishedJobRetention = finishedJobRetention;
+
+        final var threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "sort-job-" + threadNumber.incrementAndGet()));
+        this.deferredJobScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "sort-job-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Queues a sort of the playlist and returns at once.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the queue is full
+     */
+    public SortJob submit(final String playlistId, final SortType sortType, final boolean ascending) throws IOException {
+        removeExpiredJobs();
+
+        final var job = new SortJob(UUID.randomUUID().toString(), playlistId, sortType, ascending);
+        sortJobJournal.writeJob(job);
+
+        try {
+            schedule(job, false);
+        } catch (RuntimeException e) {
+            sortJobJournal.delete(job);
+            throw e;
+        }
+
+        LOGGER.info("Submitted job {} sorting playlist {}", job.getId(), playlistId);
+        return job;
+    }
+
+    public SortJob getJob(final String jobId) {
+        return jobs.get(jobId);
+    }
+
+    public Collection<SortJob> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(SortJob::getCreatedAt))
+                .toList();
+    }
+
+    /**
+     * Stops the job before its next move. Moves already applied stay applied.
+     */
+    public SortJob cancel(final String jobId) {
+        final var job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+
+        deferredJobsLock.lock();
+        try {
+            if (!job.getStatus().isFinished()) {
+                LOGGER.info("Cancelling job {}", jobId);
+                job.requestCancel();
+                if (job.getStatus() == SortJobStatus.DEFERRED) {
+                    final var deferredJobTask = deferredJobTasks.remove(jobId);
+                    if (deferredJobTask != null) {
+                        deferredJobTask.cancel(false);
+                    }
+                    finish(job, SortJobStatus.CANCELLED);
+                }
+            }
+        } finally {
+            deferredJobsLock.unlock();
+        }
+        return job;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        if (!resumeOnStartup) {
+            return;
+        }
+
+        final List<SortJob> unfinishedJobs = sortJobJournal.readUnfinishedJobs();
+        for (final var job : unfinishedJobs) {
+            LOGGER.info("Resuming job {} sorting playlist {} at move {}", job.getId(), job.getPlaylistId(),
+                    job.getMovesApplied());
+            schedule(job, false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        deferredJobScheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs the job again, with a new plan, once the quota resets. Its journal, which already holds the plan and the
+     * moves applied so far, stays in place.
+     */
+    private void defer(final SortJob job, final long remainingQuotaCost) {
+        final var resetsAt = quotaLedger.getResetsAt();
+        final var exception = new QuotaBudgetExceededException(remainingQuotaCost, quotaLedger.getRemainingUnits(), resetsAt);
+
+        deferredJobsLock.lock();
+        try {
+            if (job.isCancelRequested()) {
+                finish(job, SortJobStatus.CANCELLED);
+                return;
+            }
+
+            LOGGER.info("Deferring job {}: {}", job.getId(), exception.getMessage());
+            job.setError(exception.getMessage());
+            job.setStatus(SortJobStatus.DEFERRED);
+            deferredJobTasks.put(job.getId(), deferredJobScheduler.schedule(() -> resumeDeferred(job),
+                    quotaLedger.getTimeUntilReset().toMillis(), TimeUnit.MILLISECONDS));
+        } finally {
+            deferredJobsLock.unlock();
+        }
+    }
+
+    private void resumeDeferred(final SortJob job) {
+        deferredJobsLock.lock();
+        try {
+            deferredJobTasks.remove(job.getId());
+            if (job.getStatus() != SortJobStatus.DEFERRED) {
+                return;
+            }
+            job.setStatus(SortJobStatus.QUEUED);
+        } finally {
+            deferredJobsLock.unlock();
+        }
+        schedule(job, true);
+    }
+
+    private void finish(final SortJob job, final SortJobStatus status) {
+        job.setStatus(status);
+        sortJobJournal.delete(job);
+        LOGGER.info("Job {} finished with status {} after {} of {} moves", job.getId(), job.getStatus(),
+                job.getMovesApplied(), job.getMovesPlanned());
+    }
+
+    private void removeExpiredJobs() {
+        final var expiredBefore = Instant.now().minus(finishedJobRetention);
+        jobs.values().removeIf(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(expiredBefore));
+    }
+
+    /**
+     * @param replan whether to fetch and plan the playlist again even if the job already has a plan
+     */
+    private void schedule(final SortJob job, final boolean replan) {
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, replan));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+    }
+
+    private void run(final SortJob job, final boolean replan) {
+        final var playlistLock = youTubePlaylistService.getPlaylistLock(job.getPlaylistId());
+        playlistLock.lock();
+        try {
+            if (job.isCancelRequested()) {
+                finish(job, SortJobStatus.CANCELLED);
+                return;
+            }
+
+            if (job.getPlan() == null || replan) {
+                job.setStatus(SortJobStatus.PLANNING);
+                final var plan = youTubePlaylistService.getReorderPlan(job.getPlaylistId(), job.getSortType(),
+                        job.isAscending());
+                sortJobJournal.writePlan(job, plan);
+                if (job.getPlan() == null) {
+                    job.setPlan(plan);
+                } else {
+                    LOGGER.info("Job {} planned again after {} moves: {} moves left", job.getId(),
+                            job.getMovesApplied(), plan.getMoveCount());
+                    job.replan(plan);
+                }
+            }
+
+            final var moveQuotaCost = ApiOperation.PLAYLIST_ITEMS_UPDATE.getQuotaCost();
+            if (job.getMovesRemaining() > 0 && moveQuotaCost > quotaLedger.getDailyLimit()) {
+                throw new IllegalStateException("A move costs " + moveQuotaCost
+                        + " quota units, more than the daily limit of " + quotaLedger.getDailyLimit());
+            }
+
+            final int movesApplied;
+            try (final var reservation = quotaLedger.reserveUpTo(ApiOperation.PLAYLIST_ITEMS_UPDATE,
+                    job.getMovesRemaining())) {
+                final var movesAffordable = (int) (reservation.getUnits() / moveQuotaCost);
+                if (movesAffordable == 0 && job.getMovesRemaining() > 0) {
+                    defer(job, (long) job.getMovesRemaining() * moveQuotaCost);
+                    return;
+                }
+
+                job.setStatus(SortJobStatus.RUNNING);
+                job.setError(null);
+                final var lastMoveIndex = job.getMovesApplied() + movesAffordable;
+                movesApplied = youTubePlaylistService.executeReorderPlan(job.getPlan(), job.getMovesApplied(),
+                        () -> job.isCancelRequested() || shuttingDown || job.getMovesApplied() >= lastMoveIndex,
+                        (moveIndex, move) -> {
+                            sortJobJournal.writeMoveApplied(job, moveIndex);
+                            job.setMovesApplied(moveIndex + 1);
+                        });
+            }
+
+            if (shuttingDown && movesApplied < job.getMovesPlanned()) {
+                LOGGER.info("Job {} interrupted by shutdown at move {}, it will resume on startup", job.getId(), movesApplied);
+                return;
+            }
+            if (!job.isCancelRequested() && movesApplied < job.getMovesPlanned()) {
+                defer(job, (long) job.getMovesRemaining() * moveQuotaCost);
+                return;
+            }
+            finish(job, job.isCancelRequested() && movesApplied < job.getMovesPlanned()
+                    ? SortJobStatus.CANCELLED
+                    : SortJobStatus.COMPLETED);
+        } catch (Exception e) {
+            if (shuttingDown) {
+                LOGGER.info("Job {} interrupted by shutdown, it will resume on startup", job.getId());
+                return;
+            }
+            LOGGER.error("Job {} sorting playlist {} failed", job.getId(), job.getPlaylistId(), e);
+            job.setError(e.getMessage());
+            finish(job, SortJobStatus.FAILED);
+        } finally {
+            playlistLock.unlock();
+        }
+    }
+}
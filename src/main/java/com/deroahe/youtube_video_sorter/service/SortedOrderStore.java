@@ -0,0 +1,66 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.SortedOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Keeps the {@link SortedOrder} of every playlist's last completed sort, one JSON file per playlist, so an incremental
+ * sort can tell which videos were added since.
+ */
+@Service
+public class SortedOrderStore {
+
+    private static final Logger LOGGER = getLogger(SortedOrderStore.class);
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    public SortedOrderStore(@Value("${youtube.incremental-sort.directory:sorted}") final String directory,
+                            final ObjectMapper objectMapper) {
+        this.directory = Path.of(directory);
+        this.objectMapper = objectMapper;
+    }
+
+    public SortedOrder get(final String playlistId) {
+        final var file = getFile(playlistId);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(file.toFile(), SortedOrder.class);
+        } catch (IOException e) {
+            LOGGER.warn("Could not read sorted order from {}, the next sort will be a full one", file, e);
+            return null;
+        }
+    }
+
+    public void put(final SortedOrder sortedOrder) {
+        final var file = getFile(sortedOrder.playlistId());
+        try {
+            Files.createDirectories(directory);
+            final var temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(temporaryFile.toFile(), sortedOrder);
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write sorted order to {}", file, e);
+        }
+    }
+
+    /**
+     * The playlist id comes from the request path, so only safe characters make it into the file name.
+     */
+    private Path getFile(final String playlistId) {
+        return directory.resolve(playlistId.replaceAll("[^A-Za-z0-9_-]", "_") + ".json");
+    }
+}
@@ -0,0 +1,61 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.deroahe.youtube_video_sorter.support.model.VideoMetadata;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory LRU store of the video metadata fetched for the metadata sort types, bounded by the number of videos.
+ * <p>
+ * Whether an entry is still usable depends on the field a sort needs: publish dates and durations never change, so
+ * they are kept until evicted, while view counts are refetched once they are older than
+ * {@code youtube.video-metadata.view-count-ttl}. Videos the API didn't return are retried after the same TTL, since
+ * private videos can become public again.
+ */
+@Service
+public class VideoMetadataCache {
+
+    private final Duration viewCountTtl;
+    private final LinkedHashMap<String, VideoMetadata> metadataByVideoId;
+
+    public VideoMetadataCache(@Value("${youtube.video-metadata.view-count-ttl:PT1H}") final Duration viewCountTtl,
+                              @Value("${youtube.video-metadata.max-videos:100000}") final int maxVideos) {
+        this.viewCountTtl = viewCountTtl;
+        this.metadataByVideoId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, VideoMetadata> eldest) {
+                return size() > maxVideos;
+            }
+        };
+    }
+
+    /**
+     * @return the cached metadata of the video, or null if there is none fresh enough for the sort type
+     */
+    public VideoMetadata get(final String videoId, final SortType sortType) {
+        final VideoMetadata metadata;
+        synchronized (metadataByVideoId) {
+            metadata = metadataByVideoId.get(videoId);
+        }
+        return metadata != null && isFresh(metadata, sortType, Instant.now()) ? metadata : null;
+    }
+
+    public void put(final String videoId, final VideoMetadata metadata) {
+        synchronized (metadataByVideoId) {
+            metadataByVideoId.put(videoId, metadata);
+        }
+    }
+
+    private boolean isFresh(final VideoMetadata metadata, final SortType sortType, final Instant now) {
+        if (sortType != SortType.VIEW_COUNT && metadata.isAvailable()) {
+            return true;
+        }
+        return metadata.fetchedAt().plus(viewCountTtl).isAfter(now);
+    }
+}
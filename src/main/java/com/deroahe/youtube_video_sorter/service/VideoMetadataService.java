@@ -0,0 +1,155 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.deroahe.youtube_video_sorter.support.model.CompactPlaylist;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.deroahe.youtube_video_sorter.support.model.VideoMetadata;
+import com.google.api.services.youtube.YouTube;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Looks up the metadata the metadata sort types order by, which playlist items don't carry.
+ * <p>
+ * Videos without fresh metadata in {@link VideoMetadataCache} are fetched with {@code videos.list}, 50 ids per request,
+ * with up to {@code youtube.video-metadata.max-concurrent-requests} requests in flight at once, each on a virtual
+ * thread; the per-account request rate is still enforced by {@link YouTubeRequestExecutor}.
+ */
+@Service
+public class VideoMetadataService {
+
+    private static final Logger LOGGER = getLogger(VideoMetadataService.class);
+
+    private static final int MAX_IDS_PER_REQUEST = 50;
+    private static final String FIELDS = "items(id,snippet/publishedAt,contentDetails/duration,statistics/viewCount)";
+
+    private final YouTubeService youTubeService;
+    private final YouTubeRequestExecutor youTubeRequestExecutor;
+    private final VideoMetadataCache videoMetadataCache;
+    private final Semaphore concurrentRequests;
+
+    public VideoMetadataService(final YouTubeService youTubeService,
+                                final YouTubeRequestExecutor youTubeRequestExecutor,
+                                final VideoMetadataCache videoMetadataCache,
+                                @Value("${youtube.video-metadata.max-concurrent-requests:4}") final int maxConcurrentRequests) {
+        this.youTubeService = youTubeService;
+        this.youTubeRequestExecutor = youTubeRequestExecutor;
+        this.videoMetadataCache = videoMetadataCache;
+        this.concurrentRequests = new Semaphore(maxConcurrentRequests);
+    }
+
+    /**
+     * @return the sort keys ({@link VideoMetadata#getSortKey}) of the videos of the playlist by index
+     */
+    public long[] getSortKeys(final CompactPlaylist playlist, final SortType sortType)
+            throws GeneralSecurityException, IOException {
+        final var videoIds = new LinkedHashSet<String>();
+        for (int i = 0; i < playlist.size(); i++) {
+            if (playlist.getVideoId(i) != null) {
+                videoIds.add(playlist.getVideoId(i));
+            }
+        }
+
+        final Map<String, VideoMetadata> metadataByVideoId = new HashMap<>(videoIds.size() * 2);
+        final List<String> missingVideoIds = new ArrayList<>();
+        for (final var videoId : videoIds) {
+            final var metadata = videoMetadataCache.get(videoId, sortType);
+            if (metadata == null) {
+                missingVideoIds.add(videoId);
+            } else {
+                metadataByVideoId.put(videoId, metadata);
+            }
+        }
+
+        if (!missingVideoIds.isEmpty()) {
+            metadataByVideoId.putAll(fetch(missingVideoIds));
+        }
+
+        final var requestsMade = (missingVideoIds.size() + MAX_IDS_PER_REQUEST - 1) / MAX_IDS_PER_REQUEST;
+        LOGGER.info("Video metadata of playlist {}: {} videos cached, {} fetched. Requests made: {} ({} queries)",
+                playlist.getPlaylistId(), videoIds.size() - missingVideoIds.size(), missingVideoIds.size(),
+                requestsMade, requestsMade * ApiOperation.VIDEOS_LIST.getQuotaCost());
+
+        final var sortKeys = new long[playlist.size()];
+        for (int i = 0; i < sortKeys.length; i++) {
+            final var metadata = metadataByVideoId.get(playlist.getVideoId(i));
+            sortKeys[i] = metadata == null ? VideoMetadata.UNKNOWN_SORT_KEY : metadata.getSortKey(sortType);
+        }
+        return sortKeys;
+    }
+
+    private Map<String, VideoMetadata> fetch(final List<String> videoIds) throws GeneralSecurityException, IOException {
+        final var youtubeService = youTubeService.getYouTubeService();
+
+        final List<Future<Map<String, VideoMetadata>>> futures = new ArrayList<>();
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int from = 0; from < videoIds.size(); from += MAX_IDS_PER_REQUEST) {
+                final var batch = videoIds.subList(from, Math.min(from + MAX_IDS_PER_REQUEST, videoIds.size()));
+                futures.add(executor.submit(() -> fetchBatch(youtubeService, batch)));
+            }
+        }
+
+        final Map<String, VideoMetadata> metadataByVideoId = new HashMap<>(videoIds.size() * 2);
+        for (final var future : futures) {
+            try {
+                metadataByVideoId.putAll(future.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while fetching video metadata");
+            }
+        }
+        return metadataByVideoId;
+    }
+
+    /**
+     * Videos the API doesn't return are cached as unavailable, so they aren't asked for again on every sort.
+     */
+    private Map<String, VideoMetadata> fetchBatch(final YouTube youtubeService, final List<String> videoIds)
+            throws IOException, InterruptedException {
+        concurrentRequests.acquire();
+        try {
+            final var request = youtubeService.videos()
+                    .list("snippet,contentDetails,statistics")
+                    .setId(String.join(",", videoIds))
+                    .setFields(FIELDS);
+            final var response = youTubeRequestExecutor.execute(ApiOperation.VIDEOS_LIST, request);
+
+            final var fetchedAt = Instant.now();
+            final Map<String, VideoMetadata> metadataByVideoId = new HashMap<>(videoIds.size() * 2);
+            if (response.getItems() != null) {
+                for (final var video : response.getItems()) {
+                    metadataByVideoId.put(video.getId(), VideoMetadata.of(video, fetchedAt));
+                }
+            }
+            for (final var videoId : videoIds) {
+                final var metadata = metadataByVideoId.computeIfAbsent(videoId, id -> VideoMetadata.unavailable(fetchedAt));
+                videoMetadataCache.put(videoId, metadata);
+            }
+            return metadataByVideoId;
+        } finally {
+            concurrentRequests.release();
+        }
+    }
+}
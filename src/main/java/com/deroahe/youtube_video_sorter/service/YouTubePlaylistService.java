@@ -1,17 +1,57 @@
 package com.deroahe.youtube_video_sorter.service;
 
+import com.deroahe.youtube_video_sorter.support.IncrementalSort;
+import com.deroahe.youtube_video_sorter.support.MoveListener;
+import com.deroahe.youtube_video_sorter.support.PageConsumer;
+import com.deroahe.youtube_video_sorter.support.PlaylistCleanupPlanner;
+import com.deroahe.youtube_video_sorter.support.ReorderPlanner;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.deroahe.youtube_video_sorter.support.model.CleanupPlan;
+import com.deroahe.youtube_video_sorter.support.model.CompactPlaylist;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistSnapshot;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistSortResult;
+import com.deroahe.youtube_video_sorter.support.model.RemovalReason;
+import com.deroahe.youtube_video_sorter.support.model.ReorderPlan;
+import com.deroahe.youtube_video_sorter.support.model.SearchPage;
 import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.deroahe.youtube_video_sorter.support.model.SortedOrder;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpStatusCodes;
+import com.google.api.client.json.GenericJson;
+import com.google.api.services.youtube.YouTubeRequest;
 import com.google.api.services.youtube.model.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.security.GeneralSecurityException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
-
-import static com.deroahe.youtube_video_sorter.support.SortMethods.getSortedAlphabetical;
-import static com.deroahe.youtube_video_sorter.support.SortMethods.getSortedNumerical;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static com.deroahe.youtube_video_sorter.support.SortMethods.getSortedIndexes;
+import static com.deroahe.youtube_video_sorter.support.SortMethods.getSortedKeyIndexes;
+import static com.deroahe.youtube_video_sorter.support.SortMethods.getTitleComparator;
 import static org.slf4j.LoggerFactory.getLogger;
 
 @Service
@@ -19,19 +59,149 @@ public class YouTubePlaylistService {
 
     private static final Logger LOGGER = getLogger(YouTubePlaylistService.class);
 
-    private final YouTubeService youTubeService;
+    /**
+     * The parts of a playlist items page sorting, planning and cleaning up use; the rest of each item (thumbnails,
+     * description, ...) isn't transferred.
+     */
+    private static final String SORT_FIELDS =
+            "etag,nextPageToken,items(id,snippet(title,position,resourceId/videoId,videoOwnerChannelId))";
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
 
-    public YouTubePlaylistService(final YouTubeService youTubeService) {
+    private final YouTubeService youTubeService;
+    private final YouTubeRequestExecutor youTubeRequestExecutor;
+    private final PlaylistSnapshotCache playlistSnapshotCache;
+    private final QuotaLedger quotaLedger;
+    private final SortedOrderStore sortedOrderStore;
+    private final VideoMetadataService videoMetadataService;
+    private final PlaylistSearchIndex playlistSearchIndex;
+    private final boolean incrementalSortEnabled;
+    private final Locale sortLocale;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary playlistsPageSizes;
+    private final DistributionSummary playlistItemsPageSizes;
+    private final DistributionSummary playlistSizes;
+    private final Counter movesPlanned;
+    private final Counter movesExecuted;
+    private final Map<RemovalReason, Counter> removalCounters = new EnumMap<>(RemovalReason.class);
+    private final Map<String, Lock> playlistLocks = new ConcurrentHashMap<>();
+
+    public YouTubePlaylistService(final YouTubeService youTubeService,
+                                  final YouTubeRequestExecutor youTubeRequestExecutor,
+                                  final PlaylistSnapshotCache playlistSnapshotCache,
+                                  final QuotaLedger quotaLedger,
+                                  final SortedOrderStore sortedOrderStore,
+                                  final VideoMetadataService videoMetadataService,
+                                  final PlaylistSearchIndex playlistSearchIndex,
+                                  final MeterRegistry meterRegistry,
+                                  @Value("${youtube.incremental-sort.enabled:true}") final boolean incrementalSortEnabled,
+                                  @Value("${youtube.sort.locale:en}") final Locale sortLocale) {
         this.youTubeService = youTubeService;
+        this.youTubeRequestExecutor = youTubeRequestExecutor;
+        this.playlistSnapshotCache = playlistSnapshotCache;
+        this.quotaLedger = quotaLedger;
+        this.sortedOrderStore = sortedOrderStore;
+        this.videoMetadataService = videoMetadataService;
+        this.playlistSearchIndex = playlistSearchIndex;
+        this.incrementalSortEnabled = incrementalSortEnabled;
+        this.sortLocale = sortLocale;
+        this.meterRegistry = meterRegistry;
+
+        playlistsPageSizes = registerPageSizes(meterRegistry, "playlists");
+        playlistItemsPageSizes = registerPageSizes(meterRegistry, "playlistItems");
+        playlistSizes = DistributionSummary.builder("youtube.playlist.videos")
+                .description("Videos in the playlists being sorted")
+                .baseUnit("videos")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        movesPlanned = Counter.builder("youtube.sort.moves")
+                .description("Playlist item moves planned and executed")
+                .tag("state", "planned")
+                .register(meterRegistry);
+        movesExecuted = Counter.builder("youtube.sort.moves")
+                .description("Playlist item moves planned and executed")
+                .tag("state", "executed")
+                .register(meterRegistry);
+        for (final var reason : RemovalReason.values()) {
+            removalCounters.put(reason, Counter.builder("youtube.cleanup.removals")
+                    .description("Duplicate and unavailable playlist items deleted")
+                    .tag("reason", reason.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static DistributionSummary registerPageSizes(final MeterRegistry meterRegistry, final String collection) {
+        return DistributionSummary.builder("youtube.api.page.items")
+                .description("Items in each list page fetched from the API")
+                .tag("collection", collection)
+                .baseUnit("items")
+                .register(meterRegistry);
     }
 
     public List<Playlist> getAllPlaylists() throws GeneralSecurityException, IOException {
+        return getAllPlaylists(false);
+    }
+
+    /**
+     * @param revalidate whether to revalidate every page of the snapshot, even within its TTL, for callers that pick
+     *                   the playlists to change from the result
+     */
+    public List<Playlist> getAllPlaylists(final boolean revalidate) throws GeneralSecurityException, IOException {
+        List<Playlist> playlists = new ArrayList<>();
+        forEachPlaylistsPage(true, revalidate, playlists::addAll);
+        return playlists;
+    }
+
+    /**
+     * Hands every page of playlists to the consumer as soon as it arrives. Pages fetched here are not kept in the
+     * snapshot cache, so memory use doesn't depend on the number of playlists (beyond their titles in the search
+     * index).
+     */
+    public void streamAllPlaylists(final PageConsumer<Playlist> consumer) throws GeneralSecurityException, IOException {
+        forEachPlaylistsPage(false, false, consumer);
+    }
+
+    /**
+     * Every page is also added to the search index, and once all pages are fetched the playlists that weren't in
+     * them are dropped from it.
+     */
+    private void forEachPlaylistsPage(final boolean storeSnapshot, final boolean revalidate,
+                                      final PageConsumer<Playlist> consumer) throws GeneralSecurityException, IOException {
+        final Set<String> playlistIds = new HashSet<>();
+        fetchPlaylistsPages(storeSnapshot, revalidate, page -> {
+            playlistSearchIndex.putPlaylists(page);
+            for (final var playlist : page) {
+                playlistIds.add(playlist.getId());
+            }
+            consumer.accept(page);
+        });
+        playlistSearchIndex.retainPlaylists(playlistIds);
+    }
+
+    /**
+     * @param revalidate whether to revalidate every page of the snapshot, rather than serve it as it is within its TTL
+     */
+    private void fetchPlaylistsPages(final boolean storeSnapshot, final boolean revalidate,
+                                     final PageConsumer<Playlist> consumer) throws GeneralSecurityException, IOException {
         LOGGER.info("Fetching all playlists");
 
+        final var key = PlaylistSnapshotCache.getPlaylistsKey();
+        final var snapshot = playlistSnapshotCache.get(key, PlaylistListResponse.class);
+        if (snapshot != null && !revalidate && playlistSnapshotCache.isFresh(key, snapshot)) {
+            int playlistsFound = 0;
+            for (final var page : snapshot.pages()) {
+                consumer.accept(page.getItems());
+                playlistsFound += page.getItems().size();
+            }
+            LOGGER.info("Playlists found in snapshot: {}", playlistsFound);
+            return;
+        }
+
         final var youtubeService = youTubeService.getYouTubeService();
         int requestsMade = 0;
+        int pagesNotModified = 0;
+        int playlistsFound = 0;
 
-        List<Playlist> playlists = new ArrayList<>();
+        List<PlaylistListResponse> pages = new ArrayList<>();
         String nextPageToken = null;
 
         do {
@@ -41,73 +211,419 @@ public class YouTubePlaylistService {
                     .setMaxResults(50L)
                     .setPageToken(nextPageToken);
 
-            final var response = request.execute();
+            final var cachedPage = snapshot == null ? null : snapshot.getPage(requestsMade);
+            final var response = executeRevalidating(ApiOperation.PLAYLISTS_LIST, request, cachedPage);
             requestsMade++;
 
-            for (final var playList : response.getItems()) {
-                final var title = playList.getSnippet().getTitle();
-                LOGGER.info("Fetched playlist {}", title);
+            if (response == cachedPage) {
+                pagesNotModified++;
+            } else if (LOGGER.isDebugEnabled()) {
+                for (final var playList : response.getItems()) {
+                    LOGGER.debug("Fetched playlist {}", playList.getSnippet().getTitle());
+                }
             }
 
-            playlists.addAll(response.getItems());
+            playlistsPageSizes.record(response.getItems().size());
+            consumer.accept(response.getItems());
+            playlistsFound += response.getItems().size();
+            if (storeSnapshot) {
+                pages.add(response);
+            }
             nextPageToken = response.getNextPageToken();
         } while (nextPageToken != null);
 
-        LOGGER.info("Playlists found: {}. Requests made: {} ({} queries)", playlists.size(), requestsMade, requestsMade);
+        if (storeSnapshot) {
+            playlistSnapshotCache.put(key, pages);
+        }
 
-        return playlists;
+        LOGGER.info("Playlists found: {}. Requests made: {} ({} queries, {} pages not modified)", playlistsFound,
+                requestsMade, requestsMade, pagesNotModified);
     }
 
-    public void updatePlaylistOrder(final String playlistId, final SortType sortType, final boolean ascending)
+    public ReorderPlan updatePlaylistOrder(final String playlistId, final SortType sortType, final boolean ascending)
             throws GeneralSecurityException, IOException {
-        LOGGER.info("Updating video order for playlist {}", playlistId);
+        return updatePlaylistOrder(playlistId, sortType, ascending, false, (cleanupPlan, reorderPlan) -> reorderPlan);
+    }
+
+    /**
+     * @param cleanUp whether to first delete the duplicate and unavailable videos ({@link PlaylistCleanupPlanner}),
+     *                in which case the moves are planned on the playlist without them
+     */
+    public PlaylistSortResult updatePlaylistOrder(final String playlistId, final SortType sortType,
+                                                  final boolean ascending, final boolean cleanUp)
+            throws GeneralSecurityException, IOException {
+        return updatePlaylistOrder(playlistId, sortType, ascending, cleanUp, PlaylistSortResult::sorted);
+    }
+
+    /**
+     * @param result makes the result out of the cleanup plan (null if not cleaning up) and the reorder plan
+     */
+    private <T> T updatePlaylistOrder(final String playlistId, final SortType sortType, final boolean ascending,
+                                      final boolean cleanUp, final BiFunction<CleanupPlan, ReorderPlan, T> result)
+            throws GeneralSecurityException, IOException {
+        final var playlistLock = getPlaylistLock(playlistId);
+        playlistLock.lock();
+        try {
+            LOGGER.info("Updating video order for playlist {}", playlistId);
+
+            var playlist = getCurrentCompactPlaylist(playlistId);
+            final var cleanupPlan = cleanUp ? planCleanup(playlist) : null;
+            if (cleanupPlan != null) {
+                playlist = playlist.without(cleanupPlan.removals());
+            }
 
+            final var reorderPlan = getReorderPlan(playlist, sortType, ascending);
+            try (final var reservation = quotaLedger.reserve(reorderPlan.getQuotaCost()
+                    + (cleanupPlan == null ? 0 : cleanupPlan.getQuotaCost()))) {
+                if (cleanupPlan != null) {
+                    executeCleanupPlan(cleanupPlan);
+                }
+                executeReorderPlan(reorderPlan);
+            }
+            return result.apply(cleanupPlan, reorderPlan);
+        } finally {
+            playlistLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the duplicate and unavailable videos of the playlist.
+     */
+    public CleanupPlan cleanUpPlaylist(final String playlistId) throws GeneralSecurityException, IOException {
+        final var playlistLock = getPlaylistLock(playlistId);
+        playlistLock.lock();
+        try {
+            final var cleanupPlan = getCleanupPlan(playlistId);
+            try (final var reservation = quotaLedger.reserve(cleanupPlan.getQuotaCost())) {
+                executeCleanupPlan(cleanupPlan);
+            }
+            return cleanupPlan;
+        } finally {
+            playlistLock.unlock();
+        }
+    }
+
+    public CleanupPlan getCleanupPlan(final String playlistId) throws GeneralSecurityException, IOException {
+        return planCleanup(getCurrentCompactPlaylist(playlistId));
+    }
+
+    private CleanupPlan planCleanup(final CompactPlaylist playlist) {
+        final var cleanupPlan = PlaylistCleanupPlanner.plan(playlist);
+        LOGGER.info("Planned {} removals of duplicate and unavailable videos for {} videos in playlist {} ({} queries)",
+                cleanupPlan.getRemovalCount(), cleanupPlan.videoCount(), playlist.getPlaylistId(),
+                cleanupPlan.getQuotaCost());
+        return cleanupPlan;
+    }
+
+    public void executeCleanupPlan(final CleanupPlan cleanupPlan) throws GeneralSecurityException, IOException {
         final var youtubeService = youTubeService.getYouTubeService();
-        final var sortedVideos = getSortedVideos(playlistId, sortType, ascending);
+        final var playlistId = cleanupPlan.playlistId();
+        final List<String> deletedPlaylistItemIds = new ArrayList<>(cleanupPlan.getRemovalCount());
 
-        int updateRequestsMade = 0;
+        try {
+            for (final var removal : cleanupPlan.removals()) {
+                youTubeRequestExecutor.execute(ApiOperation.PLAYLIST_ITEMS_DELETE,
+                        youtubeService.playlistItems().delete(removal.playlistItemId()));
+                deletedPlaylistItemIds.add(removal.playlistItemId());
+
+                removalCounters.get(removal.reason()).increment();
+                LOGGER.debug("Deleted {} video {}", removal.reason(), removal.title());
+            }
+        } finally {
+            invalidatePlaylistItems(playlistId);
+            playlistSearchIndex.removePlaylistItems(playlistId, deletedPlaylistItemIds);
+        }
 
-        for (int i = 0; i < sortedVideos.size(); i++) {
-            final var video = sortedVideos.get(i);
-            final var videoTitle = video.getSnippet().getTitle();
-            final var videoPosition = video.getSnippet().getPosition();
+        LOGGER.info("Cleaned up playlist {}. Requests made: {} ({} queries)", playlistId, deletedPlaylistItemIds.size(),
+                deletedPlaylistItemIds.size() * ApiOperation.PLAYLIST_ITEMS_DELETE.getQuotaCost());
+    }
+
+    /**
+     * The lock that serializes the fetch-plan-update cycles of a playlist, since every update shifts positions the
+     * other cycles planned with. Different playlists don't share a lock.
+     */
+    public Lock getPlaylistLock(final String playlistId) {
+        return playlistLocks.computeIfAbsent(playlistId, id -> new ReentrantLock());
+    }
+
+    public ReorderPlan getReorderPlan(final String playlistId, final SortType sortType, final boolean ascending)
+            throws GeneralSecurityException, IOException {
+        return getReorderPlan(getCurrentCompactPlaylist(playlistId), sortType, ascending);
+    }
+
+    private ReorderPlan getReorderPlan(final CompactPlaylist playlist, final SortType sortType, final boolean ascending)
+            throws GeneralSecurityException, IOException {
+        final var playlistId = playlist.getPlaylistId();
+        playlistSizes.record(playlist.size());
+        final var sortKeys = getSortKeys(playlist, sortType);
+        final var sortedIndexes = timePhase("sort", sortType, () -> sort(playlist, sortType, ascending, sortKeys));
+
+        final List<String> sortedPlaylistItemIds = new ArrayList<>(sortedIndexes.length);
+        for (final var index : sortedIndexes) {
+            sortedPlaylistItemIds.add(playlist.getPlaylistItemId(index));
+        }
+        final var plan = timePhase("plan", sortType, () -> ReorderPlanner.plan(playlist, sortedIndexes));
+        final var reorderPlan = new ReorderPlan(playlistId, plan.videoCount(), plan.moves(),
+                new SortedOrder(playlistId, sortType, ascending, sortedPlaylistItemIds, Instant.now()));
+
+        LOGGER.info("Planned {} moves for {} videos in playlist {} ({} queries)", reorderPlan.getMoveCount(),
+                reorderPlan.videoCount(), playlistId, reorderPlan.getQuotaCost());
+
+        return reorderPlan;
+    }
+
+    /**
+     * Records the wall time and, where the JVM can measure it for the current thread, the CPU time of a sort phase.
+     * It can't on virtual threads, so the phases of web requests only have their wall time recorded.
+     */
+    private <T> T timePhase(final String phase, final SortType sortType, final Supplier<T> work) {
+        final var startCpuNanos = getCurrentThreadCpuNanos();
+        final var startNanos = System.nanoTime();
+        final var result = work.get();
+        final var endNanos = System.nanoTime();
+        final var endCpuNanos = getCurrentThreadCpuNanos();
+
+        Timer.builder("youtube.sort.phase")
+                .description("Wall time of sorting a fetched playlist and of planning its moves")
+                .tag("phase", phase)
+                .tag("sort.type", sortType.name())
+                .register(meterRegistry)
+                .record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+        if (startCpuNanos >= 0 && endCpuNanos >= 0) {
+            Timer.builder("youtube.sort.phase.cpu")
+                    .description("CPU time of sorting a fetched playlist and of planning its moves")
+                    .tag("phase", phase)
+                    .tag("sort.type", sortType.name())
+                    .register(meterRegistry)
+                    .record(endCpuNanos - startCpuNanos, TimeUnit.NANOSECONDS);
+        }
+        return result;
+    }
 
-            if (videoPosition == i) {
-                continue;
+    /**
+     * @return the CPU time of the current thread, or -1 if the JVM can't measure it (e.g. on a virtual thread)
+     */
+    private static long getCurrentThreadCpuNanos() {
+        if (Thread.currentThread().isVirtual()) {
+            return -1;
+        }
+        try {
+            return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    public void executeReorderPlan(final ReorderPlan reorderPlan) throws GeneralSecurityException, IOException {
+        executeReorderPlan(reorderPlan, 0, () -> false, (moveIndex, move) -> {
+        });
+    }
+
+    /**
+     * Applies the moves of the plan in order, starting with {@code firstMoveIndex}, until all are applied or
+     * {@code cancelled} returns true. Moves are idempotent, so resending a move that was applied but not reported
+     * to the listener (e.g. after a crash) leaves the playlist unchanged.
+     * <p>
+     * The moves of the plan count as planned when its first move is about to be applied, so previews don't count.
+     *
+     * @return the index of the first move that wasn't applied
+     */
+    public int executeReorderPlan(final ReorderPlan reorderPlan, final int firstMoveIndex, final BooleanSupplier cancelled,
+                                  final MoveListener moveListener) throws GeneralSecurityException, IOException {
+        final var youtubeService = youTubeService.getYouTubeService();
+        final var playlistId = reorderPlan.playlistId();
+        final var moves = reorderPlan.moves();
+
+        int updateRequestsMade = 0;
+        int moveIndex = firstMoveIndex;
+        if (firstMoveIndex == 0) {
+            movesPlanned.increment(moves.size());
+        }
+
+        try {
+            for (; moveIndex < moves.size() && !cancelled.getAsBoolean(); moveIndex++) {
+                final var move = moves.get(moveIndex);
+                final var updateRequest = youtubeService.playlistItems()
+                        .update("snippet", new PlaylistItem()
+                                .setId(move.playlistItemId())
+                                .setSnippet(new PlaylistItemSnippet()
+                                        .setPlaylistId(playlistId)
+                                        .setResourceId(new ResourceId().setKind("youtube#video").setVideoId(move.videoId()))
+                                        .setPosition(move.toPosition())));
+                youTubeRequestExecutor.execute(ApiOperation.PLAYLIST_ITEMS_UPDATE, updateRequest);
+                updateRequestsMade++;
+
+                movesExecuted.increment();
+                LOGGER.debug("Request sent for video {}", move.title());
+                moveListener.moveApplied(moveIndex, move);
             }
+        } finally {
+            // Even a partially applied plan has changed the positions
+            invalidatePlaylistItems(playlistId);
+        }
 
-            final var updateRequest = youtubeService.playlistItems()
-                    .update("snippet", new PlaylistItem()
-                            .setId(video.getId())
-                            .setSnippet(video.getSnippet().setPosition((long) i)));
-            updateRequest.execute();
-            updateRequestsMade++;
+        LOGGER.info("Updated playlist {}. Requests made: {} ({} queries)", playlistId, updateRequestsMade,
+                updateRequestsMade * ApiOperation.PLAYLIST_ITEMS_UPDATE.getQuotaCost());
 
-            LOGGER.info("Request sent for video {}", videoTitle);
+        if (moveIndex == moves.size() && reorderPlan.sortedOrder() != null) {
+            sortedOrderStore.put(reorderPlan.sortedOrder());
+            playlistSearchIndex.updatePositions(playlistId, reorderPlan.sortedOrder().playlistItemIds());
         }
 
-        LOGGER.info("Updated playlist {}. Requests made: {} ({} queries)", playlistId, updateRequestsMade, updateRequestsMade * 50);
+        return moveIndex;
+    }
+
+    private void invalidatePlaylistItems(final String playlistId) {
+        playlistSnapshotCache.invalidate(PlaylistSnapshotCache.getPlaylistItemsKey(playlistId));
+        playlistSnapshotCache.invalidate(PlaylistSnapshotCache.getSortFieldsKey(playlistId));
+    }
+
+    /**
+     * Searches the titles of the playlists and videos fetched so far ({@link PlaylistSearchIndex}), without API calls.
+     */
+    public SearchPage search(final String query, final boolean prefix, final int offset, final int limit) {
+        return playlistSearchIndex.search(query, prefix, offset, limit);
     }
 
     public List<PlaylistItem> getSortedVideos(final String playlistId, final SortType sortType, final boolean ascending)
             throws GeneralSecurityException, IOException {
         LOGGER.info("Sorting videos in playlist {}", playlistId);
 
-        final var videos = getVideosInPlaylist(playlistId);
+        final var playlist = getCompactPlaylist(playlistId);
+        final var sortedIndexes = sort(playlist, sortType, ascending, getSortKeys(playlist, sortType));
 
-        return switch (sortType) {
-            case WHOLE_TITLE_ALPHABETICAL -> getSortedAlphabetical(videos, ascending);
-            case HASHTAG_NUMBER_NUMERICAL -> getSortedNumerical(videos, ascending);
-        };
+        final List<PlaylistItem> sortedVideos = new ArrayList<>(sortedIndexes.length);
+        for (final var index : sortedIndexes) {
+            sortedVideos.add(playlist.toPlaylistItem(index));
+        }
+        return sortedVideos;
+    }
+
+    /**
+     * @return the metadata sort keys of the videos by index, or null if the sort type orders by title
+     */
+    private long[] getSortKeys(final CompactPlaylist playlist, final SortType sortType)
+            throws GeneralSecurityException, IOException {
+        return sortType.isByVideoMetadata() ? videoMetadataService.getSortKeys(playlist, sortType) : null;
+    }
+
+    /**
+     * Sorts incrementally ({@link IncrementalSort}) if the playlist's last completed sort had the same order and its
+     * videos weren't moved since, otherwise fully. Metadata sorts are always full: their keys come from the metadata
+     * cache, and view counts change between sorts anyway.
+     *
+     * @param sortKeys the metadata sort keys of the videos, for the metadata sort types
+     * @return the indexes of the videos in sorted order
+     */
+    private int[] sort(final CompactPlaylist playlist, final SortType sortType, final boolean ascending,
+                       final long[] sortKeys) {
+        if (sortKeys != null) {
+            return getSortedKeyIndexes(sortKeys, ascending);
+        }
+
+        final var playlistId = playlist.getPlaylistId();
+        final var lastSortedOrder = incrementalSortEnabled ? sortedOrderStore.get(playlistId) : null;
+        if (lastSortedOrder != null && lastSortedOrder.sortType() == sortType && lastSortedOrder.ascending() == ascending) {
+            final var sortedIndexes = IncrementalSort.getSortedIndexes(playlist, lastSortedOrder.playlistItemIds(),
+                    getTitleComparator(sortType, ascending, sortLocale));
+            if (sortedIndexes != null) {
+                LOGGER.info("Sorted playlist {} incrementally from its sort at {}", playlistId, lastSortedOrder.sortedAt());
+                return sortedIndexes;
+            }
+            LOGGER.info("Videos in playlist {} were moved since its sort at {}, sorting it fully", playlistId,
+                    lastSortedOrder.sortedAt());
+        }
+
+        return getSortedIndexes(playlist.getTitles(), sortType, ascending, sortLocale);
     }
 
     public List<PlaylistItem> getVideosInPlaylist(final String playlistId) throws GeneralSecurityException, IOException {
+        List<PlaylistItem> videos = new ArrayList<>();
+        forEachPlaylistItemsPage(playlistId, null, true, false, videos::addAll);
+        return videos;
+    }
+
+    /**
+     * Fetches the videos of the playlist with only the fields sorting needs and keeps them in the compact model. A
+     * snapshot within its TTL is served as it is, so this is only for reading.
+     */
+    public CompactPlaylist getCompactPlaylist(final String playlistId) throws GeneralSecurityException, IOException {
+        return getCompactPlaylist(playlistId, false);
+    }
+
+    /**
+     * Like {@link #getCompactPlaylist(String)}, but revalidates every page of the snapshot even within its TTL, since
+     * moves and deletions are planned by absolute position and a stale position would send videos to the wrong place.
+     */
+    private CompactPlaylist getCurrentCompactPlaylist(final String playlistId) throws GeneralSecurityException, IOException {
+        return getCompactPlaylist(playlistId, true);
+    }
+
+    private CompactPlaylist getCompactPlaylist(final String playlistId, final boolean revalidate)
+            throws GeneralSecurityException, IOException {
+        final var builder = new CompactPlaylist.Builder(playlistId);
+        forEachPlaylistItemsPage(playlistId, SORT_FIELDS, true, revalidate, builder::addAll);
+        return builder.build();
+    }
+
+    /**
+     * Hands every page of videos to the consumer as soon as it arrives. Pages fetched here are not kept in the
+     * snapshot cache, so memory use doesn't depend on the size of the playlist (beyond its titles in the search
+     * index).
+     */
+    public void streamVideosInPlaylist(final String playlistId, final PageConsumer<PlaylistItem> consumer)
+            throws GeneralSecurityException, IOException {
+        forEachPlaylistItemsPage(playlistId, null, false, false, consumer);
+    }
+
+    /**
+     * Every page is also added to the search index, and once all pages are fetched the videos that weren't in them
+     * are dropped from it.
+     *
+     * @param fields the fields to fetch of every page, or null for all of them
+     */
+    private void forEachPlaylistItemsPage(final String playlistId, final String fields, final boolean storeSnapshot,
+                                          final boolean revalidate, final PageConsumer<PlaylistItem> consumer)
+            throws GeneralSecurityException, IOException {
+        final Set<String> playlistItemIds = new HashSet<>();
+        fetchPlaylistItemsPages(playlistId, fields, storeSnapshot, revalidate, page -> {
+            playlistSearchIndex.putPlaylistItems(playlistId, page);
+            for (final var item : page) {
+                playlistItemIds.add(item.getId());
+            }
+            consumer.accept(page);
+        });
+        playlistSearchIndex.retainPlaylistItems(playlistId, playlistItemIds);
+    }
+
+    /**
+     * @param revalidate whether to revalidate every page of the snapshot, rather than serve it as it is within its TTL
+     */
+    private void fetchPlaylistItemsPages(final String playlistId, final String fields, final boolean storeSnapshot,
+                                         final boolean revalidate, final PageConsumer<PlaylistItem> consumer)
+            throws GeneralSecurityException, IOException {
         LOGGER.info("Fetching all videos in playlist {}", playlistId);
 
+        final var key = fields == null
+                ? PlaylistSnapshotCache.getPlaylistItemsKey(playlistId)
+                : PlaylistSnapshotCache.getSortFieldsKey(playlistId);
+        final var snapshot = playlistSnapshotCache.get(key, PlaylistItemListResponse.class);
+        if (snapshot != null && !revalidate && playlistSnapshotCache.isFresh(key, snapshot)) {
+            int videosFound = 0;
+            for (final var page : snapshot.pages()) {
+                consumer.accept(page.getItems());
+                videosFound += page.getItems().size();
+            }
+            LOGGER.info("Videos found in snapshot of playlist {}: {}", playlistId, videosFound);
+            return;
+        }
+
         final var youtubeService = youTubeService.getYouTubeService();
         int requestsMade = 0;
+        int pagesNotModified = 0;
+        int videosFound = 0;
 
-        List<PlaylistItem> videos = new ArrayList<>();
+        List<PlaylistItemListResponse> pages = new ArrayList<>();
         String nextPageToken = null;
 
         do {
@@ -115,24 +631,57 @@ public class YouTubePlaylistService {
                     .list("snippet")
                     .setPlaylistId(playlistId)
                     .setMaxResults(50L) // Max allowed per request
-                    .setPageToken(nextPageToken);
+                    .setPageToken(nextPageToken)
+                    .setFields(fields);
 
-            final var response = request.execute();
+            final var cachedPage = snapshot == null ? null : snapshot.getPage(requestsMade);
+            final var response = executeRevalidating(ApiOperation.PLAYLIST_ITEMS_LIST, request, cachedPage);
             requestsMade++;
 
-            for (final var item : response.getItems()) {
-                final var title = item.getSnippet().getTitle();
-                LOGGER.info("Fetched video {}", title);
+            if (response == cachedPage) {
+                pagesNotModified++;
+            } else if (LOGGER.isDebugEnabled()) {
+                for (final var item : response.getItems()) {
+                    LOGGER.debug("Fetched video {}", item.getSnippet().getTitle());
+                }
             }
 
-            videos.addAll(response.getItems());
+            playlistItemsPageSizes.record(response.getItems().size());
+            consumer.accept(response.getItems());
+            videosFound += response.getItems().size();
+            if (storeSnapshot) {
+                pages.add(response);
+            }
             nextPageToken = response.getNextPageToken();
         } while (nextPageToken != null);
 
-        LOGGER.info("Videos found in playlist {}: {}. Requests made: {} ({} queries)", playlistId, videos.size(),
-                requestsMade, requestsMade);
+        if (storeSnapshot) {
+            playlistSnapshotCache.put(key, pages);
+        }
 
-        return videos;
+        LOGGER.info("Videos found in playlist {}: {}. Requests made: {} ({} queries, {} pages not modified)", playlistId,
+                videosFound, requestsMade, requestsMade, pagesNotModified);
     }
-}
 
+    /**
+     * Sends the request with the ETag of the cached page, if any, and returns the cached page when the API answers
+     * 304 Not Modified.
+     */
+    private <T extends GenericJson> T executeRevalidating(final ApiOperation operation, final YouTubeRequest<T> request,
+                                                          final T cachedPage) throws IOException {
+        final var eTag = PlaylistSnapshot.getETag(cachedPage);
+        if (eTag == null) {
+            return youTubeRequestExecutor.execute(operation, request);
+        }
+
+        request.setRequestHeaders(new HttpHeaders().setIfNoneMatch(eTag));
+        try {
+            return youTubeRequestExecutor.execute(operation, request);
+        } catch (HttpResponseException e) {
+            if (e.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+                return cachedPage;
+            }
+            throw e;
+        }
+    }
+}
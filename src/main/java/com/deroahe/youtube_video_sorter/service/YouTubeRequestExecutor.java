@@ -0,0 +1,193 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.ApiErrorClassifier;
+import com.deroahe.youtube_video_sorter.support.RateLimiter;
+import com.deroahe.youtube_video_sorter.support.model.ApiErrorType;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.google.api.client.googleapis.services.AbstractGoogleClientRequest;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpStatusCodes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Executes every YouTube Data API request, so that cross-cutting concerns such as quota accounting live in one place.
+ * <p>
+ * All requests share one rate limiter, since the API throttles per account, however many playlists are being
+ * processed at the same time. The limiter slows down when the API answers with throttling errors.
+ * <p>
+ * Throttled requests, server errors and network failures are retried with exponential backoff and full jitter;
+ * quota exhaustion and client errors are not. Lists are read-only and updates set an absolute position, so retrying
+ * them is safe. Deletes are not idempotent: a retried delete answers 404 if an earlier attempt deleted the item but its
+ * response was lost, so a 404 on any attempt but the first counts as success.
+ * <p>
+ * Every attempt is timed per operation and outcome ({@code youtube.api.requests}), errors are counted per operation and
+ * type ({@code youtube.api.errors}), and so is the time spent waiting for the rate limiter
+ * ({@code youtube.api.rate-limit.wait}).
+ */
+@Service
+public class YouTubeRequestExecutor {
+
+    private static final Logger LOGGER = getLogger(YouTubeRequestExecutor.class);
+
+    private final QuotaLedger quotaLedger;
+    private final RateLimiter rateLimiter;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final Map<ApiOperation, OperationMeters> operationMeters = new EnumMap<>(ApiOperation.class);
+
+    public YouTubeRequestExecutor(final QuotaLedger quotaLedger,
+                                  final MeterRegistry meterRegistry,
+                                  @Value("${youtube.api.requests-per-second:10}") final double requestsPerSecond,
+                                  @Value("${youtube.api.min-requests-per-second:0.5}") final double minRequestsPerSecond,
+                                  @Value("${youtube.api.burst:10}") final double burst,
+                                  @Value("${youtube.api.retry.max-attempts:6}") final int maxAttempts,
+                                  @Value("${youtube.api.retry.initial-backoff:PT0.5S}") final Duration initialBackoff,
+                                  @Value("${youtube.api.retry.max-backoff:PT30S}") final Duration maxBackoff) {
+        this.quotaLedger = quotaLedger;
+        this.rateLimiter = new RateLimiter(requestsPerSecond, minRequestsPerSecond, burst);
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+
+        for (final var operation : ApiOperation.values()) {
+            operationMeters.put(operation, OperationMeters.register(meterRegistry, operation));
+        }
+        Gauge.builder("youtube.api.rate-limit", rateLimiter, RateLimiter::getPermitsPerSecond)
+                .description("Requests per second currently allowed by the rate limiter")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(final ApiOperation operation, final AbstractGoogleClientRequest<T> request) throws IOException {
+        final var meters = operationMeters.get(operation);
+        for (int attempt = 1; ; attempt++) {
+            final var waitStartNanos = System.nanoTime();
+            acquirePermit(operation);
+            final var startNanos = System.nanoTime();
+            meters.permitWait().record(startNanos - waitStartNanos, TimeUnit.NANOSECONDS);
+
+            try {
+                final var response = request.execute();
+                meters.successes().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                rateLimiter.onSuccess();
+                return response;
+            } catch (IOException e) {
+                if (e instanceof HttpResponseException responseException
+                        && responseException.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_MODIFIED) {
+                    // A revalidated page that didn't change; the caller serves its cached copy
+                    meters.notModified().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    rateLimiter.onSuccess();
+                    throw e;
+                }
+                if (attempt > 1 && operation == ApiOperation.PLAYLIST_ITEMS_DELETE
+                        && e instanceof HttpResponseException responseException
+                        && responseException.getStatusCode() == HttpStatusCodes.STATUS_CODE_NOT_FOUND) {
+                    // An earlier attempt deleted the item
+                    LOGGER.info("{} retry found the item already deleted", operation);
+                    meters.successes().record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    rateLimiter.onSuccess();
+                    return null;
+                }
+
+                final var errorType = ApiErrorClassifier.classify(e);
+                meters.failures().get(errorType).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                meters.errors().get(errorType).increment();
+                if (errorType == ApiErrorType.RATE_LIMITED) {
+                    rateLimiter.onThrottled();
+                } else if (errorType == ApiErrorType.QUOTA_EXCEEDED) {
+                    quotaLedger.markExhausted();
+                }
+                if (!errorType.isRetryable() || attempt >= maxAttempts) {
+                    throw e;
+                }
+
+                final var backoffMillis = getBackoffMillis(attempt);
+                LOGGER.warn("{} failed with {} error ({}), retrying in {} ms (attempt {} of {})", operation, errorType,
+                        e.getMessage(), backoffMillis, attempt, maxAttempts);
+                sleep(operation, backoffMillis);
+            } finally {
+                // The API charges for failed requests too
+                quotaLedger.record(operation);
+            }
+        }
+    }
+
+    private record OperationMeters(Timer permitWait,
+                                   Timer successes,
+                                   Timer notModified,
+                                   Map<ApiErrorType, Timer> failures,
+                                   Map<ApiErrorType, Counter> errors) {
+
+        static OperationMeters register(final MeterRegistry meterRegistry, final ApiOperation operation) {
+            final Map<ApiErrorType, Timer> failures = new EnumMap<>(ApiErrorType.class);
+            final Map<ApiErrorType, Counter> errors = new EnumMap<>(ApiErrorType.class);
+            for (final var errorType : ApiErrorType.values()) {
+                failures.put(errorType, registerRequestTimer(meterRegistry, operation, errorType.name()));
+                errors.put(errorType, Counter.builder("youtube.api.errors")
+                        .description("Failed API requests, retried or not")
+                        .tag("operation", operation.name())
+                        .tag("type", errorType.name())
+                        .register(meterRegistry));
+            }
+
+            final var permitWait = Timer.builder("youtube.api.rate-limit.wait")
+                    .description("Time requests wait for the rate limiter")
+                    .tag("operation", operation.name())
+                    .register(meterRegistry);
+            return new OperationMeters(permitWait, registerRequestTimer(meterRegistry, operation, "SUCCESS"),
+                    registerRequestTimer(meterRegistry, operation, "NOT_MODIFIED"), failures, errors);
+        }
+
+        private static Timer registerRequestTimer(final MeterRegistry meterRegistry, final ApiOperation operation,
+                                                  final String outcome) {
+            return Timer.builder("youtube.api.requests")
+                    .description("API request attempts, from sending the request to parsing the response")
+                    .tag("operation", operation.name())
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Full jitter: a random delay between 0 and an exponentially growing, capped ceiling.
+     */
+    private long getBackoffMillis(final int attempt) {
+        final var ceilingMillis = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceilingMillis + 1);
+    }
+
+    private void acquirePermit(final ApiOperation operation) throws InterruptedIOException {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to send " + operation);
+        }
+    }
+
+    private static void sleep(final ApiOperation operation, final long millis) throws InterruptedIOException {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off from " + operation);
+        }
+    }
+}
@@ -1,58 +1,199 @@
 package com.deroahe.youtube_video_sorter.service;
 
+import com.deroahe.youtube_video_sorter.support.CredentialSource;
+import com.deroahe.youtube_video_sorter.support.InstalledAppCredentialSource;
+import com.deroahe.youtube_video_sorter.support.http.JdkHttpTransport;
 import com.google.api.client.auth.oauth2.Credential;
-import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
-import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
-import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
-import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.auth.oauth2.TokenResponseException;
+import com.google.api.client.googleapis.apache.v2.GoogleApacheHttpTransport;
 import com.google.api.client.http.HttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
-import com.google.api.client.util.store.FileDataStoreFactory;
 import com.google.api.services.youtube.YouTube;
 
-import java.io.*;
+import java.io.IOException;
 import java.security.GeneralSecurityException;
-import java.util.Collections;
-import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
-import com.google.api.services.youtube.YouTubeScopes;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Holds the single {@link YouTube} client shared by all service calls.
+ * <p>
+ * The HTTP transport, the authorized credential and the client itself are created on first use and reused afterwards.
+ * The transport is picked with {@code youtube.http.transport}: {@code jdk} (the default) for the JDK's HTTP/2 client,
+ * or {@code apache} for a pooled, keep-alive Apache client; both share their connections across all calls.
+ * The access token is refreshed in memory shortly before it expires, so only the first call (or a refresh token that
+ * is missing or was rejected) goes through the OAuth consent flow of the {@link CredentialSource}.
+ * <p>
+ * The client can be pointed at another implementation of the API with {@code youtube.api.root-url}, e.g. a local
+ * stand-in for tests, in which case OAuth can be turned off with {@code youtube.api.oauth-enabled=false}.
+ */
 @Service
 public class YouTubeService {
 
+    private static final Logger LOGGER = getLogger(YouTubeService.class);
+
     private static final String APPLICATION_NAME = "youtube-video-sorter";
-    private static final String CLIENT_SECRET_FILE = "client_secret.json";
     private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
-    private static final List<String> SCOPES = Collections.singletonList(YouTubeScopes.YOUTUBE_FORCE_SSL);
-    private static final String TOKENS_DIRECTORY_PATH = "tokens";
+    private static final long TOKEN_REFRESH_AHEAD_SECONDS = 300;
+
+    private static final String JDK_TRANSPORT = "jdk";
+    private static final String APACHE_TRANSPORT = "apache";
+
+    private final String rootUrl;
+    private final boolean oauthEnabled;
+    private final String transport;
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final CredentialSource credentialSource;
+    /**
+     * A lock rather than a monitor, since it is held during the OAuth flow and token refreshes, and a virtual thread
+     * blocked on I/O inside {@code synchronized} would pin its carrier thread.
+     */
+    private final Lock lock = new ReentrantLock();
+
+    private volatile HttpTransport httpTransport;
+    private volatile Credential credential;
+    private volatile YouTube youTube;
+
+    @Autowired
+    public YouTubeService(@Value("${youtube.api.root-url:}") final String rootUrl,
+                          @Value("${youtube.api.oauth-enabled:true}") final boolean oauthEnabled,
+                          @Value("${youtube.http.transport:jdk}") final String transport,
+                          @Value("${youtube.http.connect-timeout:PT10S}") final Duration connectTimeout,
+                          @Value("${youtube.http.read-timeout:PT30S}") final Duration readTimeout) {
+        this(rootUrl, oauthEnabled, transport, connectTimeout, readTimeout, new InstalledAppCredentialSource());
+    }
+
+    YouTubeService(final String rootUrl, final boolean oauthEnabled, final String transport,
+                   final Duration connectTimeout, final Duration readTimeout,
+                   final CredentialSource credentialSource) {
+        if (!JDK_TRANSPORT.equals(transport) && !APACHE_TRANSPORT.equals(transport)) {
+            throw new IllegalArgumentException("youtube.http.transport must be " + JDK_TRANSPORT + " or "
+                    + APACHE_TRANSPORT + ", not " + transport);
+        }
+        this.rootUrl = rootUrl;
+        this.oauthEnabled = oauthEnabled;
+        this.transport = transport;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.credentialSource = credentialSource;
+    }
 
     public Credential authorize() throws IOException, GeneralSecurityException {
-        InputStream in = getClass().getClassLoader().getResourceAsStream(CLIENT_SECRET_FILE);
-        if (in == null) {
-            throw new FileNotFoundException("client_secret.json not found in resources");
+        return credentialSource.authorize(getHttpTransport());
+    }
+
+    public YouTube getYouTubeService() throws IOException, GeneralSecurityException {
+        var current = youTube;
+        if (current == null) {
+            lock.lock();
+            try {
+                current = youTube;
+                if (current == null) {
+                    credential = oauthEnabled ? authorize() : null;
+                    final var builder = new YouTube.Builder(getHttpTransport(), JSON_FACTORY, request -> {
+                        // The credential is replaced if it has to be authorized again
+                        final var currentCredential = credential;
+                        if (currentCredential != null) {
+                            currentCredential.initialize(request);
+                        }
+                        request.setConnectTimeout((int) connectTimeout.toMillis())
+                                .setReadTimeout((int) readTimeout.toMillis());
+                    }).setApplicationName(APPLICATION_NAME);
+                    if (!rootUrl.isEmpty()) {
+                        builder.setRootUrl(rootUrl);
+                    }
+                    current = builder.build();
+                    youTube = current;
+                }
+            } finally {
+                lock.unlock();
+            }
         }
 
-        GoogleClientSecrets clientSecrets = GoogleClientSecrets.load(JSON_FACTORY, new InputStreamReader(in));
+        refreshCredentialIfExpiring();
+        return current;
+    }
 
-        HttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
-        FileDataStoreFactory dataStoreFactory = new FileDataStoreFactory(new File(TOKENS_DIRECTORY_PATH));
+    private HttpTransport getHttpTransport() throws IOException, GeneralSecurityException {
+        var current = httpTransport;
+        if (current == null) {
+            lock.lock();
+            try {
+                current = httpTransport;
+                if (current == null) {
+                    current = JDK_TRANSPORT.equals(transport)
+                            ? new JdkHttpTransport(connectTimeout)
+                            : GoogleApacheHttpTransport.newTrustedTransport();
+                    LOGGER.info("Using the {} HTTP transport", transport);
+                    httpTransport = current;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
 
-        GoogleAuthorizationCodeFlow flow = new GoogleAuthorizationCodeFlow.Builder(
-                httpTransport, JSON_FACTORY, clientSecrets, SCOPES)
-                .setDataStoreFactory(dataStoreFactory)
-                .setAccessType("offline")
-                .build();
+    /**
+     * Refreshes the access token before it expires, so concurrent calls don't all hit an expired token at once.
+     * Only one thread refreshes; the others wait for it and then see the new expiry.
+     * <p>
+     * A refresh token that is missing or that Google rejects (revoked, or unused for too long) can't be used again,
+     * so the stored credential is dropped and the OAuth consent flow runs again. A refresh that fails otherwise (a 5xx)
+     * is retried on the next call.
+     */
+    private void refreshCredentialIfExpiring() throws IOException, GeneralSecurityException {
+        if (credential == null) {
+            return;
+        }
 
-        return new AuthorizationCodeInstalledApp(flow, new LocalServerReceiver()).authorize("user");
+        final var expiresInSeconds = credential.getExpiresInSeconds();
+        if (expiresInSeconds == null || expiresInSeconds > TOKEN_REFRESH_AHEAD_SECONDS) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            final var currentExpiresInSeconds = credential.getExpiresInSeconds();
+            if (currentExpiresInSeconds == null || currentExpiresInSeconds > TOKEN_REFRESH_AHEAD_SECONDS) {
+                return;
+            }
+
+            LOGGER.info("Refreshing access token that expires in {} seconds", currentExpiresInSeconds);
+            final boolean refreshed;
+            try {
+                refreshed = credential.refreshToken();
+            } catch (TokenResponseException e) {
+                LOGGER.warn("Refresh token rejected with status {}, authorizing again", e.getStatusCode());
+                reauthorize();
+                return;
+            }
+            if (refreshed) {
+                return;
+            }
+            if (credential.getRefreshToken() == null) {
+                LOGGER.warn("Access token can't be refreshed without a refresh token, authorizing again");
+                reauthorize();
+            } else {
+                LOGGER.warn("Access token refresh failed, retrying on the next call");
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
-    public YouTube getYouTubeService() throws IOException, GeneralSecurityException {
-        Credential credential = authorize();
-        return new YouTube.Builder(GoogleNetHttpTransport.newTrustedTransport(), JSON_FACTORY, credential)
-                .setApplicationName(APPLICATION_NAME)
-                .build();
+    private void reauthorize() throws IOException, GeneralSecurityException {
+        credentialSource.forget(getHttpTransport());
+        credential = authorize();
     }
 }
@@ -0,0 +1,47 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.ApiErrorType;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpResponseException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.Set;
+
+public class ApiErrorClassifier {
+
+    private static final Set<String> QUOTA_EXCEEDED_REASONS = Set.of("quotaExceeded", "dailyLimitExceeded");
+    private static final Set<String> RATE_LIMITED_REASONS = Set.of("rateLimitExceeded", "userRateLimitExceeded");
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private ApiErrorClassifier() {
+    }
+
+    public static ApiErrorType classify(final IOException exception) {
+        if (exception instanceof GoogleJsonResponseException responseException && responseException.getDetails() != null
+                && responseException.getDetails().getErrors() != null) {
+            for (final var error : responseException.getDetails().getErrors()) {
+                if (QUOTA_EXCEEDED_REASONS.contains(error.getReason())) {
+                    return ApiErrorType.QUOTA_EXCEEDED;
+                }
+                if (RATE_LIMITED_REASONS.contains(error.getReason())) {
+                    return ApiErrorType.RATE_LIMITED;
+                }
+            }
+        }
+
+        if (exception instanceof HttpResponseException responseException) {
+            if (responseException.getStatusCode() == TOO_MANY_REQUESTS) {
+                return ApiErrorType.RATE_LIMITED;
+            }
+            return responseException.getStatusCode() >= 500 ? ApiErrorType.TRANSIENT : ApiErrorType.FATAL;
+        }
+
+        if (exception instanceof InterruptedIOException && !(exception instanceof SocketTimeoutException)) {
+            // The calling thread was interrupted, e.g. by a shutdown
+            return ApiErrorType.FATAL;
+        }
+        return ApiErrorType.TRANSIENT;
+    }
+}
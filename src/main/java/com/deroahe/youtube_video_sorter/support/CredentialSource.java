@@ -0,0 +1,20 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.http.HttpTransport;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Where the OAuth credential of the YouTube client comes from: the stored one, or a new one from the consent flow.
+ */
+public interface CredentialSource {
+
+    Credential authorize(HttpTransport httpTransport) throws IOException, GeneralSecurityException;
+
+    /**
+     * Drops the stored credential, so that the next {@link #authorize} goes through the consent flow again.
+     */
+    void forget(HttpTransport httpTransport) throws IOException, GeneralSecurityException;
+}
@@ -0,0 +1,94 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.CompactPlaylist;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Sorts a playlist that was sorted before by placing only the videos added since.
+ * <p>
+ * The videos that were there at the last sort are trusted to still be in order, as long as they still are in the order
+ * they were left in; removed videos are simply missing. Every new video is put behind the last old video that doesn't
+ * sort after it, found by binary search, so a playlist of n videos with k new ones takes O(k log n) title comparisons
+ * instead of a full sort.
+ */
+public class IncrementalSort {
+
+    private IncrementalSort() {
+    }
+
+    /**
+     * @param playlist              the videos of the playlist, each with its current position
+     * @param sortedPlaylistItemIds the playlist item ids in the order the last sort left them in
+     * @param titleComparator       the order of the last sort
+     * @return the indexes of the videos in sorted order, or null if the old videos were moved since the last sort and
+     * the playlist needs a full sort
+     */
+    public static int[] getSortedIndexes(final CompactPlaylist playlist, final List<String> sortedPlaylistItemIds,
+                                         final Comparator<String> titleComparator) {
+        final var ranks = new HashMap<String, Integer>(sortedPlaylistItemIds.size() * 2);
+        for (int rank = 0; rank < sortedPlaylistItemIds.size(); rank++) {
+            ranks.put(sortedPlaylistItemIds.get(rank), rank);
+        }
+
+        final var size = playlist.size();
+        final var currentOrder = IndexSort.sort(size, (first, second) ->
+                Long.compare(playlist.getPosition(first), playlist.getPosition(second)));
+        final var oldIndexes = new int[size];
+        final var newIndexes = new int[size];
+        int oldCount = 0;
+        int newCount = 0;
+        int previousRank = -1;
+
+        for (final var index : currentOrder) {
+            final var rank = ranks.get(playlist.getPlaylistItemId(index));
+            if (rank == null) {
+                newIndexes[newCount++] = index;
+            } else if (rank < previousRank) {
+                return null;
+            } else {
+                oldIndexes[oldCount++] = index;
+                previousRank = rank;
+            }
+        }
+
+        final var sortedNew = IndexSort.sort(newCount, (first, second) ->
+                titleComparator.compare(playlist.getTitle(newIndexes[first]), playlist.getTitle(newIndexes[second])));
+
+        final var sortedIndexes = new int[size];
+        int sortedCount = 0;
+        int oldPosition = 0;
+        for (int i = 0; i < newCount; i++) {
+            final var newIndex = newIndexes[sortedNew[i]];
+            final var insertionPoint = getInsertionPoint(playlist, oldIndexes, oldPosition, oldCount,
+                    playlist.getTitle(newIndex), titleComparator);
+            System.arraycopy(oldIndexes, oldPosition, sortedIndexes, sortedCount, insertionPoint - oldPosition);
+            sortedCount += insertionPoint - oldPosition;
+            oldPosition = insertionPoint;
+            sortedIndexes[sortedCount++] = newIndex;
+        }
+        System.arraycopy(oldIndexes, oldPosition, sortedIndexes, sortedCount, oldCount - oldPosition);
+
+        return sortedIndexes;
+    }
+
+    /**
+     * @return the position in {@code oldIndexes[from, to)} of the first video sorting after the title
+     */
+    private static int getInsertionPoint(final CompactPlaylist playlist, final int[] oldIndexes, final int from,
+                                         final int to, final String title, final Comparator<String> titleComparator) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final var middle = (low + high) >>> 1;
+            if (titleComparator.compare(title, playlist.getTitle(oldIndexes[middle])) < 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+}
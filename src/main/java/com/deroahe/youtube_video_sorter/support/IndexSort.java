@@ -0,0 +1,75 @@
+package com.deroahe.youtube_video_sorter.support;
+
+/**
+ * Stable sort of an index permutation, comparing indexes through primitive key arrays the caller captures in the
+ * comparator. Unlike {@code List.sort} with a key-extracting {@code Comparator}, nothing is boxed or recomputed per
+ * comparison; the only allocations are the permutation and one merge buffer.
+ */
+public class IndexSort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private IndexSort() {
+    }
+
+    @FunctionalInterface
+    public interface IndexComparator {
+
+        int compare(int firstIndex, int secondIndex);
+    }
+
+    /**
+     * @return the indexes {@code 0..size-1} ordered by the comparator; equal indexes keep their natural order
+     */
+    public static int[] sort(final int size, final IndexComparator comparator) {
+        final var indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        if (size > 1) {
+            mergeSort(indexes, indexes.clone(), 0, size, comparator);
+        }
+        return indexes;
+    }
+
+    /**
+     * Sorts {@code indexes[from, to)} using {@code buffer}, which holds the same values on entry.
+     */
+    private static void mergeSort(final int[] indexes, final int[] buffer, final int from, final int to,
+                                  final IndexComparator comparator) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(indexes, from, to, comparator);
+            return;
+        }
+
+        final var middle = (from + to) >>> 1;
+        // Sort both halves into the buffer, then merge them back
+        mergeSort(buffer, indexes, from, middle, comparator);
+        mergeSort(buffer, indexes, middle, to, comparator);
+
+        if (comparator.compare(buffer[middle - 1], buffer[middle]) <= 0) {
+            System.arraycopy(buffer, from, indexes, from, to - from);
+            return;
+        }
+
+        for (int i = from, left = from, right = middle; i < to; i++) {
+            if (right >= to || left < middle && comparator.compare(buffer[left], buffer[right]) <= 0) {
+                indexes[i] = buffer[left++];
+            } else {
+                indexes[i] = buffer[right++];
+            }
+        }
+    }
+
+    private static void insertionSort(final int[] indexes, final int from, final int to, final IndexComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            final var index = indexes[i];
+            int j = i - 1;
+            while (j >= from && comparator.compare(indexes[j], index) > 0) {
+                indexes[j + 1] = indexes[j];
+                j--;
+            }
+            indexes[j + 1] = index;
+        }
+    }
+}
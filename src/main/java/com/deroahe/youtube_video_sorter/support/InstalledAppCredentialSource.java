@@ -0,0 +1,62 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
+import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
+import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
+import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.util.store.FileDataStoreFactory;
+import com.google.api.services.youtube.YouTubeScopes;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The installed-application OAuth flow: the client secret comes from {@code client_secret.json} on the classpath, the
+ * credential is stored in the {@code tokens} directory, and consent is given in the browser through a local server.
+ */
+public class InstalledAppCredentialSource implements CredentialSource {
+
+    private static final String CLIENT_SECRET_FILE = "client_secret.json";
+    private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
+    private static final List<String> SCOPES = Collections.singletonList(YouTubeScopes.YOUTUBE_FORCE_SSL);
+    private static final String TOKENS_DIRECTORY_PATH = "tokens";
+    private static final String USER_ID = "user";
+
+    @Override
+    public Credential authorize(final HttpTransport httpTransport) throws IOException, GeneralSecurityException {
+        return new AuthorizationCodeInstalledApp(getAuthorizationCodeFlow(httpTransport), new LocalServerReceiver())
+                .authorize(USER_ID);
+    }
+
+    @Override
+    public void forget(final HttpTransport httpTransport) throws IOException, GeneralSecurityException {
+        getAuthorizationCodeFlow(httpTransport).getCredentialDataStore().delete(USER_ID);
+    }
+
+    private GoogleAuthorizationCodeFlow getAuthorizationCodeFlow(final HttpTransport httpTransport) throws IOException {
+        InputStream in = getClass().getClassLoader().getResourceAsStream(CLIENT_SECRET_FILE);
+        if (in == null) {
+            throw new FileNotFoundException("client_secret.json not found in resources");
+        }
+
+        GoogleClientSecrets clientSecrets = GoogleClientSecrets.load(JSON_FACTORY, new InputStreamReader(in));
+
+        FileDataStoreFactory dataStoreFactory = new FileDataStoreFactory(new File(TOKENS_DIRECTORY_PATH));
+
+        return new GoogleAuthorizationCodeFlow.Builder(
+                httpTransport, JSON_FACTORY, clientSecrets, SCOPES)
+                .setDataStoreFactory(dataStoreFactory)
+                .setAccessType("offline")
+                .build();
+    }
+}
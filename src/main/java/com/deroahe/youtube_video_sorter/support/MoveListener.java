@@ -0,0 +1,14 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.PlaylistMove;
+
+import java.io.IOException;
+
+/**
+ * Notified after each move of a reorder plan has been applied.
+ */
+@FunctionalInterface
+public interface MoveListener {
+
+    void moveApplied(int moveIndex, PlaylistMove move) throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receives the items of a paged API collection one page at a time, as the pages arrive.
+ */
+@FunctionalInterface
+public interface PageConsumer<T> {
+
+    void accept(List<T> items) throws IOException;
+}
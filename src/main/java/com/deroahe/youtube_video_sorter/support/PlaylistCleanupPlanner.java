@@ -0,0 +1,53 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.CleanupPlan;
+import com.deroahe.youtube_video_sorter.support.model.CompactPlaylist;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistRemoval;
+import com.deroahe.youtube_video_sorter.support.model.RemovalReason;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plans the deletions that leave a playlist with every available video once, in a single pass over its videos.
+ * <p>
+ * Videos are visited in the order they were fetched, which is position order, so of the items holding the same video
+ * the first one stays. Items whose video was deleted or made private are removed if they have both the placeholder title
+ * the API gives them and no owner channel ({@link CompactPlaylist#isAvailable}), so that a real video with such a
+ * title is kept.
+ */
+public class PlaylistCleanupPlanner {
+
+    private static final Set<String> PLACEHOLDER_TITLES = Set.of("Deleted video", "Private video");
+
+    private PlaylistCleanupPlanner() {
+    }
+
+    public static CleanupPlan plan(final CompactPlaylist playlist) {
+        final var size = playlist.size();
+        final Set<String> seenVideoIds = new HashSet<>(size * 2);
+        final List<PlaylistRemoval> removals = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            final var videoId = playlist.getVideoId(i);
+            final RemovalReason reason;
+            if (!playlist.isAvailable(i) && isPlaceholderTitle(playlist.getTitle(i))) {
+                reason = RemovalReason.UNAVAILABLE;
+            } else if (videoId != null && !seenVideoIds.add(videoId)) {
+                reason = RemovalReason.DUPLICATE;
+            } else {
+                continue;
+            }
+            removals.add(new PlaylistRemoval(playlist.getPlaylistItemId(i), videoId, playlist.getTitle(i),
+                    playlist.getPosition(i), reason));
+        }
+
+        return new CleanupPlan(playlist.getPlaylistId(), size, removals);
+    }
+
+    private static boolean isPlaceholderTitle(final String title) {
+        return title != null && PLACEHOLDER_TITLES.contains(title);
+    }
+}
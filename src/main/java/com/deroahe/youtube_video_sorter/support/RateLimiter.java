@@ -0,0 +1,76 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket that hands out permits at a steady rate, allowing bursts of up to {@code burst} permits after idle time.
+ * Callers that find the bucket empty reserve a future token and sleep until it is due, without holding the lock.
+ * <p>
+ * The rate adapts to throttling: it is halved on every throttled response (down to a minimum) and grows back by a
+ * small step on every successful one (up to the configured maximum).
+ */
+public class RateLimiter {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double INCREASE_STEP_FRACTION = 0.02;
+
+    private final double maxPermitsPerSecond;
+    private final double minPermitsPerSecond;
+    private final double burst;
+
+    private double permitsPerSecond;
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    public RateLimiter(final double maxPermitsPerSecond, final double minPermitsPerSecond, final double burst) {
+        this.maxPermitsPerSecond = maxPermitsPerSecond;
+        this.minPermitsPerSecond = minPermitsPerSecond;
+        this.burst = burst;
+        this.permitsPerSecond = maxPermitsPerSecond;
+        this.storedPermits = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        final long waitNanos;
+        synchronized (this) {
+            refill();
+            storedPermits--;
+            waitNanos = storedPermits >= 0 ? 0 : (long) (-storedPermits / permitsPerSecond * NANOS_PER_SECOND);
+        }
+
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    public synchronized double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public synchronized void onSuccess() {
+        if (permitsPerSecond < maxPermitsPerSecond) {
+            setPermitsPerSecond(Math.min(maxPermitsPerSecond, permitsPerSecond + maxPermitsPerSecond * INCREASE_STEP_FRACTION));
+        }
+    }
+
+    /**
+     * Slows down and drops the stored burst, so the requests right after a throttled one are spread out too.
+     */
+    public synchronized void onThrottled() {
+        setPermitsPerSecond(Math.max(minPermitsPerSecond, permitsPerSecond * DECREASE_FACTOR));
+        storedPermits = Math.min(storedPermits, 0);
+    }
+
+    private void setPermitsPerSecond(final double permitsPerSecond) {
+        refill();
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    private void refill() {
+        final var now = System.nanoTime();
+        storedPermits = Math.min(burst, storedPermits + (now - lastRefillNanos) / NANOS_PER_SECOND * permitsPerSecond);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,159 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.CompactPlaylist;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistMove;
+import com.deroahe.youtube_video_sorter.support.model.ReorderPlan;
+import com.google.api.services.youtube.model.PlaylistItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Plans the smallest set of position updates that puts a playlist in its sorted order.
+ * <p>
+ * The videos forming the longest run already in sorted relative order stay where they are; every other video is
+ * moved once, right behind the video that precedes it in the sorted order. Moves are emitted in sorted order, so the
+ * predecessor of a moved video is always already in its final place.
+ */
+public class ReorderPlanner {
+
+    private ReorderPlanner() {
+    }
+
+    /**
+     * @param playlistId   the playlist the videos belong to
+     * @param sortedVideos the videos of the playlist in the desired order, each with its current snippet position
+     */
+    public static ReorderPlan plan(final String playlistId, final List<PlaylistItem> sortedVideos) {
+        return plan(CompactPlaylist.of(playlistId, sortedVideos), IntStream.range(0, sortedVideos.size()).toArray());
+    }
+
+    /**
+     * Tracks the playlist while moving in O(log n) per move. Every video has a slot in a fixed order of slots: one per
+     * current position, and behind each kept video (and at the start) as many as there are videos moved behind it.
+     * A moved video goes behind its predecessor in the sorted order, which is either the kept video the run of moved
+     * videos starts behind or the moved video before it, so its slot is known up front. A Fenwick tree counts the
+     * occupied slots before a slot, which is the position of the video in it.
+     *
+     * @param playlist      the videos of the playlist, each with its current position
+     * @param sortedIndexes the indexes of the videos in the desired order
+     */
+    public static ReorderPlan plan(final CompactPlaylist playlist, final int[] sortedIndexes) {
+        final var videoCount = sortedIndexes.length;
+        final var targetIndexes = getTargetIndexesInCurrentOrder(playlist, sortedIndexes);
+        final var kept = getLongestIncreasingSubsequence(targetIndexes);
+
+        final var isKept = new boolean[videoCount];
+        for (final var targetIndex : kept) {
+            isKept[targetIndex] = true;
+        }
+
+        // The slots of the videos moved behind the kept video with each target index start behind its own slot
+        final var movedSlotsStart = new int[videoCount];
+        final var currentSlots = new int[videoCount];
+        int slot = kept.length > 0 ? kept[0] : videoCount;
+        for (int position = 0; position < videoCount; position++) {
+            final var targetIndex = targetIndexes[position];
+            currentSlots[targetIndex] = slot++;
+            if (isKept[targetIndex]) {
+                movedSlotsStart[targetIndex] = slot;
+                slot += getNextKeptTargetIndex(isKept, targetIndex) - targetIndex - 1;
+            }
+        }
+
+        final var occupiedSlots = new int[slot + 1];
+        for (int targetIndex = 0; targetIndex < videoCount; targetIndex++) {
+            addToSlot(occupiedSlots, currentSlots[targetIndex], 1);
+        }
+
+        final List<PlaylistMove> moves = new ArrayList<>(videoCount - kept.length);
+        int keptTargetIndex = -1;
+        for (int targetIndex = 0; targetIndex < videoCount; targetIndex++) {
+            if (isKept[targetIndex]) {
+                keptTargetIndex = targetIndex;
+                continue;
+            }
+
+            final var fromPosition = countOccupiedSlotsBefore(occupiedSlots, currentSlots[targetIndex]);
+            addToSlot(occupiedSlots, currentSlots[targetIndex], -1);
+            final var toSlot = (keptTargetIndex < 0 ? 0 : movedSlotsStart[keptTargetIndex])
+                    + targetIndex - keptTargetIndex - 1;
+            final var toPosition = countOccupiedSlotsBefore(occupiedSlots, toSlot);
+            addToSlot(occupiedSlots, toSlot, 1);
+
+            final var video = sortedIndexes[targetIndex];
+            moves.add(new PlaylistMove(playlist.getPlaylistItemId(video), playlist.getVideoId(video),
+                    playlist.getTitle(video), fromPosition, toPosition));
+        }
+
+        return new ReorderPlan(playlist.getPlaylistId(), videoCount, moves);
+    }
+
+    private static int getNextKeptTargetIndex(final boolean[] isKept, final int keptTargetIndex) {
+        int targetIndex = keptTargetIndex + 1;
+        while (targetIndex < isKept.length && !isKept[targetIndex]) {
+            targetIndex++;
+        }
+        return targetIndex;
+    }
+
+    /**
+     * Fenwick tree update; {@code tree} is 1-based, one longer than the number of slots.
+     */
+    private static void addToSlot(final int[] tree, final int slot, final int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private static int countOccupiedSlotsBefore(final int[] tree, final int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Orders the target indexes (indexes in {@code sortedIndexes}) by current position.
+     */
+    private static int[] getTargetIndexesInCurrentOrder(final CompactPlaylist playlist, final int[] sortedIndexes) {
+        return IndexSort.sort(sortedIndexes.length, (first, second) ->
+                Long.compare(playlist.getPosition(sortedIndexes[first]), playlist.getPosition(sortedIndexes[second])));
+    }
+
+    /**
+     * Patience sorting, O(n log n). Returns the values of one longest strictly increasing subsequence.
+     */
+    static int[] getLongestIncreasingSubsequence(final int[] values) {
+        final var tailIndexes = new int[values.length];
+        final var previousIndexes = new int[values.length];
+        int length = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                final var middle = (low + high) >>> 1;
+                if (values[tailIndexes[middle]] < values[i]) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            previousIndexes[i] = low > 0 ? tailIndexes[low - 1] : -1;
+            tailIndexes[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        final var subsequence = new int[length];
+        for (int i = length - 1, index = length > 0 ? tailIndexes[length - 1] : -1; i >= 0; i--, index = previousIndexes[index]) {
+            subsequence[i] = values[index];
+        }
+        return subsequence;
+    }
+}
@@ -0,0 +1,119 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Encodes a title into a key whose unsigned byte order ({@link Arrays#compareUnsigned(byte[], byte[])}) is the order of
+ * a sort type, so each title is collated and parsed once instead of on every comparison.
+ * <p>
+ * A key is a sequence of segments. Text segments hold the collation key of the text, with 0x00 escaped as 0x00 0xFF and
+ * followed by the terminator 0x00 0x01, so a text sorts before any longer text it is a prefix of. Number segments hold
+ * the number as 8 big-endian bytes. Titles sorted by the same type always have the same segment layout, so segments
+ * are only ever compared with segments of the same kind.
+ * <p>
+ * Not thread-safe; use one encoder per sort.
+ */
+public class SortKeyEncoder {
+
+    private static final byte ESCAPE = 0x00;
+    private static final byte ESCAPED_ZERO = (byte) 0xFF;
+    private static final byte TERMINATOR = 0x01;
+
+    private final Collator collator;
+    private byte[] buffer = new byte[64];
+    private int length;
+
+    /**
+     * Text is compared case-insensitively (but accent-sensitively) by the rules of the locale.
+     */
+    public SortKeyEncoder(final Locale locale) {
+        collator = Collator.getInstance(locale);
+        collator.setStrength(Collator.SECONDARY);
+    }
+
+    public byte[] encode(final String title, final SortType sortType) {
+        length = 0;
+        switch (sortType) {
+            case COLLATED -> appendText(title);
+            case NATURAL -> appendNatural(title);
+            case SERIES_EPISODE_TITLE -> appendSeriesEpisodeTitle(title);
+            default -> throw new IllegalArgumentException(sortType + " is not sorted by encoded keys");
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Alternates text and number segments, starting and ending with a (possibly empty) text segment, so "Part 2" sorts
+     * before "Part 10".
+     */
+    private void appendNatural(final String title) {
+        final var titleLength = title.length();
+        int textStart = 0;
+        int index = 0;
+        while (index < titleLength) {
+            final var codePoint = title.codePointAt(index);
+            if (Character.isDigit(codePoint)) {
+                appendText(title.substring(textStart, index));
+                appendNumber(TitleNumberParser.parseNumberAt(title, index));
+                index = TitleNumberParser.skipNumberAt(title, index);
+                textStart = index;
+            } else {
+                index += Character.charCount(codePoint);
+            }
+        }
+        appendText(title.substring(textStart));
+    }
+
+    /**
+     * The series is the text before the episode number ({@link TitleNumberParser}), without the separators and the
+     * hashtag in front of the number; a title without a number is a series of its own with episode 0.
+     */
+    private void appendSeriesEpisodeTitle(final String title) {
+        final var numberIndex = TitleNumberParser.indexOf(title);
+        if (numberIndex < 0) {
+            appendText(title);
+            appendNumber(0);
+        } else {
+            int seriesEnd = numberIndex;
+            while (seriesEnd > 0 && !Character.isLetterOrDigit(title.charAt(seriesEnd - 1))) {
+                seriesEnd--;
+            }
+            appendText(title.substring(0, seriesEnd));
+            appendNumber(TitleNumberParser.parseNumberAt(title, numberIndex));
+        }
+        appendText(title);
+    }
+
+    private void appendText(final String text) {
+        final var collationKey = collator.getCollationKey(text).toByteArray();
+        ensureCapacity(collationKey.length * 2 + 2);
+        for (final var keyByte : collationKey) {
+            buffer[length++] = keyByte;
+            if (keyByte == ESCAPE) {
+                buffer[length++] = ESCAPED_ZERO;
+            }
+        }
+        buffer[length++] = ESCAPE;
+        buffer[length++] = TERMINATOR;
+    }
+
+    /**
+     * Only for non-negative numbers, whose big-endian bytes compare like the numbers themselves.
+     */
+    private void appendNumber(final long number) {
+        ensureCapacity(Long.BYTES);
+        for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            buffer[length++] = (byte) (number >>> shift);
+        }
+    }
+
+    private void ensureCapacity(final int additionalBytes) {
+        if (length + additionalBytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additionalBytes));
+        }
+    }
+}
@@ -1,55 +1,150 @@
 package com.deroahe.youtube_video_sorter.support;
 
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.deroahe.youtube_video_sorter.support.model.VideoMetadata;
 import com.google.api.services.youtube.model.PlaylistItem;
 
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Locale;
 
 public class SortMethods {
 
-    private static final Pattern VIDEO_HASHTAG_NUMBER_PATTERN = Pattern.compile("#(\\d+)");
-    private static final Pattern VIDEO_HASHTAG_NUMBER_PATTERN_BACKUP = Pattern.compile("(\\d+)");
-
     private SortMethods() {
     }
 
-    public static List<PlaylistItem> getSortedAlphabetical(final List<PlaylistItem> videos, final boolean ascending) {
-        final Comparator<PlaylistItem> titleComparator = Comparator.comparing(video -> video.getSnippet().getTitle().toLowerCase());
+    public static List<PlaylistItem> getSorted(final List<PlaylistItem> videos, final SortType sortType,
+                                               final boolean ascending, final Locale locale) {
+        return reorder(videos, getSortedIndexes(getTitles(videos), sortType, ascending, locale));
+    }
 
-        if (ascending) {
-            videos.sort(titleComparator);
-        } else {
-            videos.sort(titleComparator.reversed());
-        }
-        return videos;
+    /**
+     * @param locale the locale whose rules collate text, for the sort types that use a {@link SortKeyEncoder}
+     */
+    public static int[] getSortedIndexes(final String[] titles, final SortType sortType, final boolean ascending,
+                                         final Locale locale) {
+        return switch (sortType) {
+            case WHOLE_TITLE_ALPHABETICAL -> getSortedAlphabeticalIndexes(titles, ascending);
+            case HASHTAG_NUMBER_NUMERICAL -> getSortedNumericalIndexes(titles, ascending);
+            case NATURAL, COLLATED, SERIES_EPISODE_TITLE ->
+                    getSortedEncodedIndexes(titles, sortType, ascending, locale);
+            case PUBLISHED_AT, DURATION, VIEW_COUNT -> throw new IllegalArgumentException(sortType
+                    + " is sorted by video metadata, see getSortedKeyIndexes");
+        };
+    }
+
+    /**
+     * @return a comparator ordering single titles like {@link #getSortedIndexes} orders whole playlists, for when only
+     * a few titles need comparing; it recomputes the sort keys on every comparison and isn't thread-safe
+     */
+    public static Comparator<String> getTitleComparator(final SortType sortType, final boolean ascending,
+                                                        final Locale locale) {
+        final Comparator<String> comparator = switch (sortType) {
+            case WHOLE_TITLE_ALPHABETICAL -> Comparator.comparing(String::toLowerCase);
+            case HASHTAG_NUMBER_NUMERICAL -> Comparator.comparingLong(SortMethods::extractVideoNumber);
+            case NATURAL, COLLATED, SERIES_EPISODE_TITLE -> {
+                final var encoder = new SortKeyEncoder(locale);
+                yield (first, second) -> Arrays.compareUnsigned(encoder.encode(first, sortType),
+                        encoder.encode(second, sortType));
+            }
+            case PUBLISHED_AT, DURATION, VIEW_COUNT -> throw new IllegalArgumentException(sortType
+                    + " is sorted by video metadata, not by title");
+        };
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    public static List<PlaylistItem> getSortedAlphabetical(final List<PlaylistItem> videos, final boolean ascending) {
+        return reorder(videos, getSortedAlphabeticalIndexes(getTitles(videos), ascending));
     }
 
     public static List<PlaylistItem> getSortedNumerical(final List<PlaylistItem> videos, final boolean ascending) {
-        final Comparator<PlaylistItem> hashtagNumberComparator = Comparator.comparing(video -> extractVideoNumber(video.getSnippet().getTitle().toLowerCase()));
+        return reorder(videos, getSortedNumericalIndexes(getTitles(videos), ascending));
+    }
 
-        if (ascending) {
-            videos.sort(hashtagNumberComparator);
-        } else {
-            videos.sort(hashtagNumberComparator.reversed());
+    /**
+     * @return the indexes of the titles in case-insensitive alphabetical order; equal titles keep their relative order
+     */
+    public static int[] getSortedAlphabeticalIndexes(final String[] titles, final boolean ascending) {
+        final var keys = new String[titles.length];
+        for (int i = 0; i < titles.length; i++) {
+            keys[i] = titles[i].toLowerCase();
         }
-        return videos;
+
+        return ascending
+                ? IndexSort.sort(keys.length, (first, second) -> keys[first].compareTo(keys[second]))
+                : IndexSort.sort(keys.length, (first, second) -> keys[second].compareTo(keys[first]));
     }
 
-    public static int extractVideoNumber(final String title) {
-        final var matcher = VIDEO_HASHTAG_NUMBER_PATTERN.matcher(title);
-        int videoNumber;
+    /**
+     * @return the indexes of the titles ordered by {@link #extractVideoNumber}; equal numbers keep their relative order
+     */
+    public static int[] getSortedNumericalIndexes(final String[] titles, final boolean ascending) {
+        // Lowercasing a title never adds or removes digits or hashtags, so the number is extracted from the title as is
+        final var keys = new long[titles.length];
+        for (int i = 0; i < titles.length; i++) {
+            keys[i] = extractVideoNumber(titles[i]);
+        }
 
-        if (matcher.find()) {
-            videoNumber = Integer.parseInt(matcher.group(1));
-        } else {
-            final var matcherBackup = VIDEO_HASHTAG_NUMBER_PATTERN_BACKUP.matcher(title);
-            if (matcherBackup.find()) {
-                videoNumber = Integer.parseInt(matcherBackup.group(1));
-            } else {
-                videoNumber = 0;
+        return ascending
+                ? IndexSort.sort(keys.length, (first, second) -> Long.compare(keys[first], keys[second]))
+                : IndexSort.sort(keys.length, (first, second) -> Long.compare(keys[second], keys[first]));
+    }
+
+    /**
+     * @return the indexes of the titles ordered by their {@link SortKeyEncoder} keys; equal keys keep their relative order
+     */
+    public static int[] getSortedEncodedIndexes(final String[] titles, final SortType sortType, final boolean ascending,
+                                                final Locale locale) {
+        final var encoder = new SortKeyEncoder(locale);
+        final var keys = new byte[titles.length][];
+        for (int i = 0; i < titles.length; i++) {
+            keys[i] = encoder.encode(titles[i], sortType);
+        }
+
+        return ascending
+                ? IndexSort.sort(keys.length, (first, second) -> Arrays.compareUnsigned(keys[first], keys[second]))
+                : IndexSort.sort(keys.length, (first, second) -> Arrays.compareUnsigned(keys[second], keys[first]));
+    }
+
+    /**
+     * @return the indexes of the sort keys in numerical order, with the keys that are
+     * {@link VideoMetadata#UNKNOWN_SORT_KEY} last in either direction; equal keys keep their relative order
+     */
+    public static int[] getSortedKeyIndexes(final long[] keys, final boolean ascending) {
+        return IndexSort.sort(keys.length, (first, second) -> {
+            final var firstUnknown = keys[first] == VideoMetadata.UNKNOWN_SORT_KEY;
+            final var secondUnknown = keys[second] == VideoMetadata.UNKNOWN_SORT_KEY;
+            if (firstUnknown || secondUnknown) {
+                return Boolean.compare(firstUnknown, secondUnknown);
             }
+            return ascending ? Long.compare(keys[first], keys[second]) : Long.compare(keys[second], keys[first]);
+        });
+    }
+
+    private static String[] getTitles(final List<PlaylistItem> videos) {
+        final var titles = new String[videos.size()];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = videos.get(i).getSnippet().getTitle();
+        }
+        return titles;
+    }
+
+    /**
+     * Rearranges the videos in place, so that position {@code i} holds the video previously at {@code sortedIndexes[i]}.
+     */
+    private static List<PlaylistItem> reorder(final List<PlaylistItem> videos, final int[] sortedIndexes) {
+        final var unsortedVideos = videos.toArray(new PlaylistItem[0]);
+        for (int i = 0; i < sortedIndexes.length; i++) {
+            videos.set(i, unsortedVideos[sortedIndexes[i]]);
         }
-        return videoNumber;
+        return videos;
+    }
+
+    /**
+     * @see TitleNumberParser#parse
+     */
+    public static long extractVideoNumber(final String title) {
+        return TitleNumberParser.parse(title);
     }
 }
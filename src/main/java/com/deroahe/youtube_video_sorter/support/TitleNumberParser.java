@@ -0,0 +1,103 @@
+package com.deroahe.youtube_video_sorter.support;
+
+/**
+ * Finds the number a video title is sorted by: the first number directly after a {@code #}, or otherwise the first number
+ * anywhere in the title, or 0 if the title has no digits at all.
+ * <p>
+ * The title is scanned once, without allocating. Digits of any script count (e.g. Arabic-Indic or full-width digits, as
+ * long as a number doesn't mix scripts), and numbers too large for a {@code long} saturate at {@link Long#MAX_VALUE}.
+ */
+public class TitleNumberParser {
+
+    private static final int RADIX = 10;
+
+    private TitleNumberParser() {
+    }
+
+    public static long parse(final CharSequence title) {
+        final var numberIndex = indexOf(title);
+        return numberIndex < 0 ? 0 : parseNumberAt(title, numberIndex);
+    }
+
+    /**
+     * @return the index of the first digit of the number {@link #parse} returns, or -1 if the title has no digits
+     */
+    public static int indexOf(final CharSequence title) {
+        final var length = title.length();
+        int firstDigitIndex = -1;
+        boolean afterHashtag = false;
+        int index = 0;
+
+        while (index < length) {
+            final var codePoint = Character.codePointAt(title, index);
+            if (Character.digit(codePoint, RADIX) >= 0) {
+                if (afterHashtag) {
+                    return index;
+                }
+                if (firstDigitIndex < 0) {
+                    firstDigitIndex = index;
+                }
+            }
+            afterHashtag = codePoint == '#';
+            index += Character.charCount(codePoint);
+        }
+
+        return firstDigitIndex;
+    }
+
+    /**
+     * @return the number starting at {@code index}, which must hold a digit
+     */
+    public static long parseNumberAt(final CharSequence title, final int index) {
+        final var length = title.length();
+        final var zeroDigit = getZeroDigit(Character.codePointAt(title, index));
+        long number = 0;
+        int position = index;
+        while (position < length) {
+            final var codePoint = Character.codePointAt(title, position);
+            if (!isDigitOf(codePoint, zeroDigit)) {
+                break;
+            }
+            number = accumulate(number, codePoint - zeroDigit);
+            position += Character.charCount(codePoint);
+        }
+        return number;
+    }
+
+    /**
+     * @return the index just past the number starting at {@code index}, which must hold a digit
+     */
+    public static int skipNumberAt(final CharSequence title, final int index) {
+        final var length = title.length();
+        final var zeroDigit = getZeroDigit(Character.codePointAt(title, index));
+        int end = index;
+        while (end < length) {
+            final var codePoint = Character.codePointAt(title, end);
+            if (!isDigitOf(codePoint, zeroDigit)) {
+                break;
+            }
+            end += Character.charCount(codePoint);
+        }
+        return end;
+    }
+
+    private static int getZeroDigit(final int digitCodePoint) {
+        return digitCodePoint - Character.digit(digitCodePoint, RADIX);
+    }
+
+    /**
+     * Every script has its digits in a contiguous block, so a number ends at the first code point outside the block of
+     * its first digit.
+     */
+    private static boolean isDigitOf(final int codePoint, final int zeroDigit) {
+        final var digit = Character.digit(codePoint, RADIX);
+        return digit >= 0 && codePoint - digit == zeroDigit;
+    }
+
+    private static long accumulate(final long number, final int digit) {
+        if (number > (Long.MAX_VALUE - digit) / RADIX) {
+            return Long.MAX_VALUE;
+        }
+        return number * RADIX + digit;
+    }
+}
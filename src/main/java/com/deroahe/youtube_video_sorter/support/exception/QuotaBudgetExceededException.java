@@ -0,0 +1,36 @@
+package com.deroahe.youtube_video_sorter.support.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Instant;
+
+/**
+ * Thrown instead of starting work that would need more quota units than are left for the day.
+ */
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class QuotaBudgetExceededException extends RuntimeException {
+
+    private final long unitsNeeded;
+    private final long unitsRemaining;
+    private final Instant resetsAt;
+
+    public QuotaBudgetExceededException(final long unitsNeeded, final long unitsRemaining, final Instant resetsAt) {
+        super("Needs " + unitsNeeded + " quota units but only " + unitsRemaining + " remain until " + resetsAt);
+        this.unitsNeeded = unitsNeeded;
+        this.unitsRemaining = unitsRemaining;
+        this.resetsAt = resetsAt;
+    }
+
+    public long getUnitsNeeded() {
+        return unitsNeeded;
+    }
+
+    public long getUnitsRemaining() {
+        return unitsRemaining;
+    }
+
+    public Instant getResetsAt() {
+        return resetsAt;
+    }
+}
@@ -0,0 +1,104 @@
+package com.deroahe.youtube_video_sorter.support.http;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+class JdkHttpRequest extends LowLevelHttpRequest {
+
+    /**
+     * Headers {@link HttpClient} sets itself and refuses to take from the caller.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+    private final String method;
+    private final HttpRequest.Builder requestBuilder;
+    private Duration readTimeout;
+
+    JdkHttpRequest(final HttpClient httpClient, final String method, final String url) {
+        this.httpClient = httpClient;
+        this.method = method;
+        this.requestBuilder = HttpRequest.newBuilder(URI.create(url));
+    }
+
+    @Override
+    public void addHeader(final String name, final String value) {
+        if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+            requestBuilder.header(name, value);
+        }
+    }
+
+    /**
+     * The connect timeout is the client's; only the read timeout (0 for none) applies per request. It bounds the whole
+     * exchange, up to the last byte of the response body, not just the wait for the response headers.
+     */
+    @Override
+    public void setTimeout(final int connectTimeout, final int readTimeout) {
+        if (readTimeout > 0) {
+            this.readTimeout = Duration.ofMillis(readTimeout);
+            requestBuilder.timeout(this.readTimeout);
+        }
+    }
+
+    @Override
+    public JdkHttpResponse execute() throws IOException {
+        if (getContentType() != null) {
+            addHeader("Content-Type", getContentType());
+        }
+        if (getContentEncoding() != null) {
+            addHeader("Content-Encoding", getContentEncoding());
+        }
+
+        final var request = requestBuilder
+                .method(method, getBodyPublisher())
+                .build();
+        // Responses (one page of at most 50 items) are small enough to read in full within the timeout
+        final var response = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+        try {
+            return new JdkHttpResponse(readTimeout == null
+                    ? response.get()
+                    : response.get(readTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            response.cancel(true);
+            throw new HttpTimeoutException("No complete response to " + method + " " + request.uri() + " within "
+                    + readTimeout);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + method + " " + request.uri());
+        }
+    }
+
+    /**
+     * Request bodies (playlist item updates) are small, so they're written out in full and sent with their length.
+     */
+    private HttpRequest.BodyPublisher getBodyPublisher() throws IOException {
+        final var content = getStreamingContent();
+        if (content == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+
+        final var body = new ByteArrayOutputStream();
+        content.writeTo(body);
+        return HttpRequest.BodyPublishers.ofByteArray(body.toByteArray());
+    }
+}
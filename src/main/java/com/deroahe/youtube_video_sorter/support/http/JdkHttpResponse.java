@@ -0,0 +1,87 @@
+package com.deroahe.youtube_video_sorter.support.http;
+
+import com.google.api.client.http.LowLevelHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+class JdkHttpResponse extends LowLevelHttpResponse {
+
+    private final HttpResponse<byte[]> response;
+    private final List<String> headerNames = new ArrayList<>();
+    private final List<String> headerValues = new ArrayList<>();
+
+    JdkHttpResponse(final HttpResponse<byte[]> response) {
+        this.response = response;
+        response.headers().map().forEach((name, values) -> {
+            for (final var value : values) {
+                headerNames.add(name);
+                headerValues.add(value);
+            }
+        });
+    }
+
+    @Override
+    public InputStream getContent() {
+        return new ByteArrayInputStream(response.body());
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return response.headers().firstValue("Content-Encoding").orElse(null);
+    }
+
+    @Override
+    public long getContentLength() {
+        return response.headers().firstValueAsLong("Content-Length").orElse(-1);
+    }
+
+    @Override
+    public String getContentType() {
+        return response.headers().firstValue("Content-Type").orElse(null);
+    }
+
+    @Override
+    public String getStatusLine() {
+        return (response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1") + " " + response.statusCode();
+    }
+
+    @Override
+    public int getStatusCode() {
+        return response.statusCode();
+    }
+
+    /**
+     * {@link HttpClient} doesn't expose the reason phrase (HTTP/2 doesn't have one).
+     */
+    @Override
+    public String getReasonPhrase() {
+        return null;
+    }
+
+    @Override
+    public int getHeaderCount() {
+        return headerNames.size();
+    }
+
+    @Override
+    public String getHeaderName(final int index) {
+        return headerNames.get(index);
+    }
+
+    @Override
+    public String getHeaderValue(final int index) {
+        return headerValues.get(index);
+    }
+
+    /**
+     * The body was read in full, so there is no connection to release.
+     */
+    @Override
+    public void disconnect() {
+    }
+}
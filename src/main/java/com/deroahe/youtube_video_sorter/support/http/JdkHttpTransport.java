@@ -0,0 +1,44 @@
+package com.deroahe.youtube_video_sorter.support.http;
+
+import com.google.api.client.http.HttpTransport;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * {@link HttpTransport} on the JDK's {@link HttpClient}: one client, and so one connection pool, for all requests, using
+ * HTTP/2 where the server supports it, so concurrent requests to the API share a connection instead of each doing its
+ * own handshake.
+ * <p>
+ * Responses are handed over still compressed; the Google client asks for gzip and decompresses itself.
+ */
+public class JdkHttpTransport extends HttpTransport {
+
+    private final HttpClient httpClient;
+
+    /**
+     * @param connectTimeout the timeout for opening a connection; the read timeout is set per request
+     */
+    public JdkHttpTransport(final Duration connectTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public boolean supportsMethod(final String method) {
+        return true;
+    }
+
+    @Override
+    protected JdkHttpRequest buildRequest(final String method, final String url) {
+        return new JdkHttpRequest(httpClient, method, url);
+    }
+
+    @Override
+    public void shutdown() {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+public enum ApiErrorType {
+
+    /**
+     * The daily quota is used up; retrying only wastes more requests until it resets.
+     */
+    QUOTA_EXCEEDED(false),
+    /**
+     * The API is throttling the account; the request can be retried at a lower rate.
+     */
+    RATE_LIMITED(true),
+    /**
+     * Server errors and network failures that usually go away on their own.
+     */
+    TRANSIENT(true),
+    /**
+     * Errors the same request will run into again, such as a missing playlist or a bad request.
+     */
+    FATAL(false);
+
+    private final boolean retryable;
+
+    ApiErrorType(final boolean retryable) {
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,23 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+/**
+ * The YouTube Data API calls made by the application, with their quota cost in units.
+ */
+public enum ApiOperation {
+
+    PLAYLISTS_LIST(1),
+    PLAYLIST_ITEMS_LIST(1),
+    PLAYLIST_ITEMS_UPDATE(50),
+    PLAYLIST_ITEMS_DELETE(50),
+    VIDEOS_LIST(1);
+
+    private final int quotaCost;
+
+    ApiOperation(final int quotaCost) {
+        this.quotaCost = quotaCost;
+    }
+
+    public int getQuotaCost() {
+        return quotaCost;
+    }
+}
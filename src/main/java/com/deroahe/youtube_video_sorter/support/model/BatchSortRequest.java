@@ -0,0 +1,14 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import java.util.List;
+
+/**
+ * The playlists to sort in one batch: the listed ids, plus every playlist whose title contains {@code titleFilter}
+ * (case-insensitive), if one is given. With {@code cleanUp}, duplicate and unavailable videos are deleted before sorting.
+ */
+public record BatchSortRequest(List<String> playlistIds,
+                               String titleFilter,
+                               SortType sortType,
+                               Boolean ascending,
+                               Boolean cleanUp) {
+}
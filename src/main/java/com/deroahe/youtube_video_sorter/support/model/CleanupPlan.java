@@ -0,0 +1,20 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import java.util.List;
+
+/**
+ * The playlist items to delete so that a playlist holds every available video once. Removals can be sent in any order,
+ * since items are deleted by id.
+ */
+public record CleanupPlan(String playlistId,
+                          int videoCount,
+                          List<PlaylistRemoval> removals) {
+
+    public int getRemovalCount() {
+        return removals.size();
+    }
+
+    public long getQuotaCost() {
+        return (long) removals.size() * ApiOperation.PLAYLIST_ITEMS_DELETE.getQuotaCost();
+    }
+}
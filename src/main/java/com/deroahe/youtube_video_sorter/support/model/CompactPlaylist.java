@@ -0,0 +1,208 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import com.google.api.services.youtube.model.PlaylistItem;
+import com.google.api.services.youtube.model.PlaylistItemSnippet;
+import com.google.api.services.youtube.model.ResourceId;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The videos of a playlist reduced to what sorting needs, one array per field instead of one {@link PlaylistItem}
+ * object graph per video. Repeated titles and video ids (e.g. "Deleted video", or a video added twice) share a single
+ * string.
+ * <p>
+ * Videos are addressed by their index, the order in which they were fetched.
+ * <p>
+ * A video is available if its item has the channel of the video's owner, which the API leaves out for the placeholders
+ * of deleted and private videos.
+ */
+public class CompactPlaylist {
+
+    /**
+     * Position of a video the API returned without one; sorts after all others.
+     */
+    public static final long UNKNOWN_POSITION = Long.MAX_VALUE;
+
+    /**
+     * {@code snippet.videoOwnerChannelId} is newer than the client library's model, so it's read as an unknown field.
+     */
+    private static final String VIDEO_OWNER_CHANNEL_ID = "videoOwnerChannelId";
+
+    private final String playlistId;
+    private final String[] playlistItemIds;
+    private final String[] videoIds;
+    private final String[] titles;
+    private final long[] positions;
+    private final boolean[] available;
+
+    private CompactPlaylist(final String playlistId, final String[] playlistItemIds, final String[] videoIds,
+                            final String[] titles, final long[] positions, final boolean[] available) {
+        this.playlistId = playlistId;
+        this.playlistItemIds = playlistItemIds;
+        this.videoIds = videoIds;
+        this.titles = titles;
+        this.positions = positions;
+        this.available = available;
+    }
+
+    public static CompactPlaylist of(final String playlistId, final List<PlaylistItem> videos) {
+        final var builder = new Builder(playlistId);
+        builder.addAll(videos);
+        return builder.build();
+    }
+
+    public String getPlaylistId() {
+        return playlistId;
+    }
+
+    public int size() {
+        return titles.length;
+    }
+
+    public String getPlaylistItemId(final int index) {
+        return playlistItemIds[index];
+    }
+
+    public String getVideoId(final int index) {
+        return videoIds[index];
+    }
+
+    public String getTitle(final int index) {
+        return titles[index];
+    }
+
+    public long getPosition(final int index) {
+        return positions[index];
+    }
+
+    public boolean isAvailable(final int index) {
+        return available[index];
+    }
+
+    /**
+     * @return the titles by index; the array is shared, so callers must not modify it
+     */
+    public String[] getTitles() {
+        return titles;
+    }
+
+    /**
+     * Rebuilds the full model of a video, with the fields sorting keeps.
+     */
+    public PlaylistItem toPlaylistItem(final int index) {
+        return new PlaylistItem()
+                .setId(playlistItemIds[index])
+                .setSnippet(new PlaylistItemSnippet()
+                        .setPlaylistId(playlistId)
+                        .setTitle(titles[index])
+                        .setPosition(positions[index] == UNKNOWN_POSITION ? null : positions[index])
+                        .setResourceId(videoIds[index] == null ? null
+                                : new ResourceId().setKind("youtube#video").setVideoId(videoIds[index])));
+    }
+
+    /**
+     * The playlist as it is once the removals are applied: the removed videos are left out and the others' positions
+     * are shifted down past the removed ones. Indexes of the remaining videos keep their relative order.
+     */
+    public CompactPlaylist without(final List<PlaylistRemoval> removals) {
+        final Set<String> removedPlaylistItemIds = new HashSet<>(removals.size() * 2);
+        final var removedPositions = new long[removals.size()];
+        for (int i = 0; i < removedPositions.length; i++) {
+            removedPlaylistItemIds.add(removals.get(i).playlistItemId());
+            removedPositions[i] = removals.get(i).position();
+        }
+        Arrays.sort(removedPositions);
+
+        final var builder = new Builder(playlistId);
+        for (int i = 0; i < titles.length; i++) {
+            if (removedPlaylistItemIds.contains(playlistItemIds[i])) {
+                continue;
+            }
+            final var position = positions[i] == UNKNOWN_POSITION
+                    ? UNKNOWN_POSITION
+                    : positions[i] - countBelow(removedPositions, positions[i]);
+            builder.add(playlistItemIds[i], videoIds[i], titles[i], position, available[i]);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return how many of the sorted values are lower than the value
+     */
+    private static int countBelow(final long[] sortedValues, final long value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            final var middle = (low + high) >>> 1;
+            if (sortedValues[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public static class Builder {
+
+        private final String playlistId;
+        private final Map<String, String> strings = new HashMap<>();
+        private String[] playlistItemIds = new String[50];
+        private String[] videoIds = new String[50];
+        private String[] titles = new String[50];
+        private long[] positions = new long[50];
+        private boolean[] available = new boolean[50];
+        private int size;
+
+        public Builder(final String playlistId) {
+            this.playlistId = playlistId;
+        }
+
+        public void addAll(final List<PlaylistItem> videos) {
+            for (final var video : videos) {
+                add(video);
+            }
+        }
+
+        public void add(final PlaylistItem video) {
+            final var snippet = video.getSnippet();
+            final var resourceId = snippet.getResourceId();
+            add(video.getId(), resourceId == null ? null : resourceId.getVideoId(), snippet.getTitle(),
+                    snippet.getPosition() == null ? UNKNOWN_POSITION : snippet.getPosition(),
+                    snippet.get(VIDEO_OWNER_CHANNEL_ID) != null);
+        }
+
+        private void add(final String playlistItemId, final String videoId, final String title, final long position,
+                         final boolean isAvailable) {
+            if (size == titles.length) {
+                final var capacity = size * 2;
+                playlistItemIds = Arrays.copyOf(playlistItemIds, capacity);
+                videoIds = Arrays.copyOf(videoIds, capacity);
+                titles = Arrays.copyOf(titles, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+                available = Arrays.copyOf(available, capacity);
+            }
+
+            playlistItemIds[size] = playlistItemId;
+            videoIds[size] = deduplicate(videoId);
+            titles[size] = deduplicate(title);
+            positions[size] = position;
+            available[size] = isAvailable;
+            size++;
+        }
+
+        public CompactPlaylist build() {
+            return new CompactPlaylist(playlistId, Arrays.copyOf(playlistItemIds, size), Arrays.copyOf(videoIds, size),
+                    Arrays.copyOf(titles, size), Arrays.copyOf(positions, size), Arrays.copyOf(available, size));
+        }
+
+        private String deduplicate(final String string) {
+            return string == null ? null : strings.computeIfAbsent(string, key -> key);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+/**
+ * A single {@code playlistItems.update} call of a {@link ReorderPlan}.
+ * Positions are the ones the playlist has at the moment the move is sent, after all previous moves of the plan.
+ */
+public record PlaylistMove(String playlistItemId,
+                           String videoId,
+                           String title,
+                           long fromPosition,
+                           long toPosition) {
+}
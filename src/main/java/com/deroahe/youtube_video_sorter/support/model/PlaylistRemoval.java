@@ -0,0 +1,12 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+/**
+ * A single {@code playlistItems.delete} call of a {@link CleanupPlan}. The position is the one the item had when the
+ * plan was made.
+ */
+public record PlaylistRemoval(String playlistItemId,
+                              String videoId,
+                              String title,
+                              long position,
+                              RemovalReason reason) {
+}
@@ -0,0 +1,26 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import com.google.api.client.json.GenericJson;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The list response pages of a paged collection, as they were last fetched.
+ * Every page keeps the ETag the API returned for it, so it can be revalidated on its own.
+ */
+public record PlaylistSnapshot<T extends GenericJson>(List<T> pages, Instant fetchedAt) {
+
+    public boolean isFresh(final Duration ttl, final Instant now) {
+        return fetchedAt.plus(ttl).isAfter(now);
+    }
+
+    public T getPage(final int pageIndex) {
+        return pageIndex < pages.size() ? pages.get(pageIndex) : null;
+    }
+
+    public static String getETag(final GenericJson page) {
+        return page == null ? null : (String) page.get("etag");
+    }
+}
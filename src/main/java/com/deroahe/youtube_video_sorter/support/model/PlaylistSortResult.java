@@ -0,0 +1,36 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+
+/**
+ * The outcome of sorting one playlist of a batch; the removals and quota cost include the cleanup, if there was one.
+ */
+public record PlaylistSortResult(String playlistId,
+                                 boolean sorted,
+                                 int removals,
+                                 int moves,
+                                 long quotaCost,
+                                 String error) {
+
+    /**
+     * @param cleanupPlan the cleanup done before sorting, or null if there was none
+     */
+    public static PlaylistSortResult sorted(final CleanupPlan cleanupPlan, final ReorderPlan reorderPlan) {
+        final var removals = cleanupPlan == null ? 0 : cleanupPlan.getRemovalCount();
+        final var cleanupQuotaCost = cleanupPlan == null ? 0 : cleanupPlan.getQuotaCost();
+        return new PlaylistSortResult(reorderPlan.playlistId(), true, removals, reorderPlan.getMoveCount(),
+                cleanupQuotaCost + reorderPlan.getQuotaCost(), null);
+    }
+
+    /**
+     * The error is the API's own message when the API refused the call, since the exception's message spans lines
+     * with the request and the whole response.
+     */
+    public static PlaylistSortResult failed(final String playlistId, final Exception exception) {
+        final var error = exception instanceof GoogleJsonResponseException responseException
+                && responseException.getDetails() != null
+                ? responseException.getStatusCode() + " " + responseException.getDetails().getMessage()
+                : exception.getMessage();
+        return new PlaylistSortResult(playlistId, false, 0, 0, 0, error);
+    }
+}
@@ -0,0 +1,18 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Quota units spent on the current quota day, which starts at midnight Pacific time. {@code unitsReserved} are set
+ * aside for work in progress and not counted as remaining.
+ */
+public record QuotaUsage(LocalDate quotaDay,
+                         long unitsUsed,
+                         long unitsReserved,
+                         long dailyLimit,
+                         long unitsRemaining,
+                         Instant resetsAt,
+                         Map<ApiOperation, Long> callsByOperation) {
+}
@@ -0,0 +1,13 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+public enum RemovalReason {
+
+    /**
+     * Another item of the playlist, earlier in it, holds the same video.
+     */
+    DUPLICATE,
+    /**
+     * The video was deleted or made private, so the item only holds a placeholder title.
+     */
+    UNAVAILABLE
+}
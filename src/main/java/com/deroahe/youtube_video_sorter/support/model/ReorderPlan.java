@@ -0,0 +1,30 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.util.List;
+
+/**
+ * The ordered list of moves that turns a playlist into its sorted order.
+ * Moves must be sent in list order, since every update shifts the items after it.
+ * <p>
+ * {@code sortedOrder} is the order the playlist is in once all moves are applied. It's journaled with the plan, so a
+ * resumed job records it too, but left out of API responses, where it would repeat every video.
+ */
+public record ReorderPlan(String playlistId,
+                          int videoCount,
+                          List<PlaylistMove> moves,
+                          @JsonIgnore SortedOrder sortedOrder) {
+
+    public ReorderPlan(final String playlistId, final int videoCount, final List<PlaylistMove> moves) {
+        this(playlistId, videoCount, moves, null);
+    }
+
+    public int getMoveCount() {
+        return moves.size();
+    }
+
+    public long getQuotaCost() {
+        return (long) moves.size() * ApiOperation.PLAYLIST_ITEMS_UPDATE.getQuotaCost();
+    }
+}
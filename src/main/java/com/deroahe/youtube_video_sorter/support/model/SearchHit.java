@@ -0,0 +1,13 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+/**
+ * A playlist or a video of a playlist whose title matches a search. For playlists, {@code title} is the playlist's
+ * title and the item fields are null.
+ */
+public record SearchHit(String playlistId,
+                        String playlistTitle,
+                        String playlistItemId,
+                        String videoId,
+                        String title,
+                        Long position) {
+}
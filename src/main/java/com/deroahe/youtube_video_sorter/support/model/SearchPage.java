@@ -0,0 +1,13 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import java.util.List;
+
+/**
+ * One page of the hits of a search, out of {@code total}.
+ */
+public record SearchPage(String query,
+                         int total,
+                         int offset,
+                         int limit,
+                         List<SearchHit> hits) {
+}
@@ -0,0 +1,124 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+
+/**
+ * A playlist sort running in the background. Progress fields are updated by the job's worker thread and read by
+ * the status endpoints.
+ */
+public class SortJob {
+
+    private final String id;
+    private final String playlistId;
+    private final SortType sortType;
+    private final boolean ascending;
+    private final Instant createdAt;
+
+    private volatile SortJobStatus status = SortJobStatus.QUEUED;
+    private volatile ReorderPlan plan;
+    private volatile int movesApplied;
+    private volatile int movesAppliedInEarlierPlans;
+    private volatile String error;
+    private volatile boolean cancelRequested;
+    private volatile Instant finishedAt;
+
+    public SortJob(final String id, final String playlistId, final SortType sortType, final boolean ascending) {
+        this.id = id;
+        this.playlistId = playlistId;
+        this.sortType = sortType;
+        this.ascending = ascending;
+        this.createdAt = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getPlaylistId() {
+        return playlistId;
+    }
+
+    public SortType getSortType() {
+        return sortType;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public SortJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(final SortJobStatus status) {
+        this.status = status;
+        if (status.isFinished()) {
+            finishedAt = Instant.now();
+        }
+    }
+
+    @JsonIgnore
+    public ReorderPlan getPlan() {
+        return plan;
+    }
+
+    public void setPlan(final ReorderPlan plan) {
+        this.plan = plan;
+    }
+
+    /**
+     * Replaces the plan with one made from the playlist as it is now. The moves applied of the old plan still count
+     * toward the quota spent; the moves planned, applied and remaining are those of the new plan.
+     */
+    public void replan(final ReorderPlan plan) {
+        movesAppliedInEarlierPlans += movesApplied;
+        movesApplied = 0;
+        this.plan = plan;
+    }
+
+    public int getMovesPlanned() {
+        return plan == null ? 0 : plan.getMoveCount();
+    }
+
+    public int getMovesApplied() {
+        return movesApplied;
+    }
+
+    public void setMovesApplied(final int movesApplied) {
+        this.movesApplied = movesApplied;
+    }
+
+    public int getMovesRemaining() {
+        return getMovesPlanned() - movesApplied;
+    }
+
+    public long getQuotaSpent() {
+        return (long) (movesAppliedInEarlierPlans + movesApplied) * ApiOperation.PLAYLIST_ITEMS_UPDATE.getQuotaCost();
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(final String error) {
+        this.error = error;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+}
@@ -0,0 +1,16 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+public enum SortJobStatus {
+
+    QUEUED,
+    PLANNING,
+    DEFERRED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == CANCELLED || this == FAILED;
+    }
+}
@@ -3,5 +3,37 @@ package com.deroahe.youtube_video_sorter.support.model;
 public enum SortType {
 
     HASHTAG_NUMBER_NUMERICAL,
-    WHOLE_TITLE_ALPHABETICAL
+    WHOLE_TITLE_ALPHABETICAL,
+    /**
+     * Alphabetical, except that numbers in titles compare by value ("Part 2" before "Part 10").
+     */
+    NATURAL,
+    /**
+     * Alphabetical by the collation rules of the {@code youtube.sort.locale} locale (e.g. accented letters next to
+     * unaccented ones).
+     */
+    COLLATED,
+    /**
+     * By series name (the text before the episode number), then episode number, then the whole title.
+     */
+    SERIES_EPISODE_TITLE,
+    /**
+     * By the date the video was published, looked up with {@code videos.list}.
+     */
+    PUBLISHED_AT,
+    /**
+     * By the length of the video, looked up with {@code videos.list}.
+     */
+    DURATION,
+    /**
+     * By the number of views of the video, looked up with {@code videos.list}.
+     */
+    VIEW_COUNT;
+
+    /**
+     * @return whether the sort orders by video metadata rather than by the playlist item titles
+     */
+    public boolean isByVideoMetadata() {
+        return this == PUBLISHED_AT || this == DURATION || this == VIEW_COUNT;
+    }
 }
@@ -0,0 +1,14 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The order a playlist was left in by its last completed sort, as playlist item ids.
+ */
+public record SortedOrder(String playlistId,
+                          SortType sortType,
+                          boolean ascending,
+                          List<String> playlistItemIds,
+                          Instant sortedAt) {
+}
@@ -0,0 +1,65 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import com.google.api.services.youtube.model.Video;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The fields of a video the metadata sort types order by, as fetched at {@code fetchedAt}. Fields the API didn't
+ * return are null; all of them are null for a video the API doesn't return at all (deleted or private).
+ */
+public record VideoMetadata(Instant publishedAt, Duration duration, Long viewCount, Instant fetchedAt) {
+
+    /**
+     * Sort key of a video whose metadata field is unknown; such videos sort after all others.
+     */
+    public static final long UNKNOWN_SORT_KEY = Long.MIN_VALUE;
+
+    public static VideoMetadata of(final Video video, final Instant fetchedAt) {
+        final var snippet = video.getSnippet();
+        final var contentDetails = video.getContentDetails();
+        final var statistics = video.getStatistics();
+        return new VideoMetadata(
+                snippet == null || snippet.getPublishedAt() == null
+                        ? null : Instant.ofEpochMilli(snippet.getPublishedAt().getValue()),
+                contentDetails == null ? null : parseDuration(contentDetails.getDuration()),
+                statistics == null || statistics.getViewCount() == null ? null : statistics.getViewCount().longValue(),
+                fetchedAt);
+    }
+
+    public static VideoMetadata unavailable(final Instant fetchedAt) {
+        return new VideoMetadata(null, null, null, fetchedAt);
+    }
+
+    public boolean isAvailable() {
+        return publishedAt != null || duration != null || viewCount != null;
+    }
+
+    /**
+     * @return the field the sort type orders by as a number, or {@link #UNKNOWN_SORT_KEY}
+     */
+    public long getSortKey(final SortType sortType) {
+        return switch (sortType) {
+            case PUBLISHED_AT -> publishedAt == null ? UNKNOWN_SORT_KEY : publishedAt.toEpochMilli();
+            case DURATION -> duration == null ? UNKNOWN_SORT_KEY : duration.toSeconds();
+            case VIEW_COUNT -> viewCount == null ? UNKNOWN_SORT_KEY : viewCount;
+            default -> throw new IllegalArgumentException(sortType + " is not sorted by video metadata");
+        };
+    }
+
+    /**
+     * Durations are ISO 8601 ("PT1H2M3S", "P1DT2H"); live streams that haven't ended report "P0D".
+     */
+    private static Duration parseDuration(final String duration) {
+        if (duration == null) {
+            return null;
+        }
+        try {
+            return Duration.parse(duration);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
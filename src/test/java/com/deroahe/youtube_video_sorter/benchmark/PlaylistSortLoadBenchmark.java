@@ -0,0 +1,195 @@
+package com.deroahe.youtube_video_sorter.benchmark;
+
+import com.deroahe.youtube_video_sorter.fake.FakeYouTubeApi;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * End-to-end load benchmark: sorts synthetic playlists through the HTTP endpoints, with the application pointed at
+ * {@link FakeYouTubeApi}, and reports wall time, API calls, quota units and peak heap use per playlist size and order.
+ * <p>
+ * Excluded from the default build; run it with {@code ./mvnw test -Pbenchmark}. Sizes can be changed with
+ * {@code -Dbenchmark.playlist-sizes=1000,5000}. The report is written to {@code target/benchmark/playlist-sort-load.json}.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class PlaylistSortLoadBenchmark {
+
+    private static final FakeYouTubeApi FAKE_YOUTUBE_API = startFakeYouTubeApi();
+    private static final Path DIRECTORY = createDirectory();
+    private static final Path REPORT_FILE = Path.of("target", "benchmark", "playlist-sort-load.json");
+    private static final List<Result> RESULTS = Collections.synchronizedList(new ArrayList<>());
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    enum Order {
+        SHUFFLED,
+        NEARLY_SORTED,
+        REVERSED
+    }
+
+    record Result(int playlistSize,
+                  Order order,
+                  long wallTimeMillis,
+                  long apiCalls,
+                  long listCalls,
+                  long updateCalls,
+                  long quotaUnits,
+                  long peakHeapBytes) {
+    }
+
+    @DynamicPropertySource
+    static void properties(final DynamicPropertyRegistry registry) {
+        registry.add("youtube.api.root-url", FAKE_YOUTUBE_API::getRootUrl);
+        registry.add("youtube.api.oauth-enabled", () -> false);
+        registry.add("youtube.api.requests-per-second", () -> 1_000_000);
+        registry.add("youtube.api.burst", () -> 1_000_000);
+        registry.add("youtube.quota.daily-limit", () -> Long.MAX_VALUE);
+        registry.add("youtube.quota.file", () -> DIRECTORY.resolve("quota.json").toString());
+        registry.add("youtube.snapshot-cache.directory", () -> DIRECTORY.resolve("snapshots").toString());
+        registry.add("youtube.jobs.directory", () -> DIRECTORY.resolve("jobs").toString());
+        registry.add("youtube.jobs.resume-on-startup", () -> false);
+        registry.add("logging.level.com.deroahe.youtube_video_sorter", () -> "WARN");
+    }
+
+    static Stream<Arguments> playlists() {
+        final var sizes = System.getProperty("benchmark.playlist-sizes", "1000,5000,20000,50000");
+        return Arrays.stream(sizes.split(","))
+                .map(String::trim)
+                .map(Integer::parseInt)
+                .flatMap(size -> Arrays.stream(Order.values()).map(order -> Arguments.of(size, order)));
+    }
+
+    @ParameterizedTest(name = "{0} videos, {1}")
+    @MethodSource("playlists")
+    void sortPlaylist(final int playlistSize, final Order order) throws Exception {
+        final var expectedTitles = createEpisodeTitles(playlistSize);
+        final var playlistId = FAKE_YOUTUBE_API.addPlaylist("Benchmark " + playlistSize + " " + order,
+                arrange(expectedTitles, order));
+
+        System.gc();
+        FAKE_YOUTUBE_API.resetCounters();
+        final var heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        final var start = System.nanoTime();
+
+        final var job = send(HttpRequest.newBuilder(getUri("/api/youtube/" + playlistId + "?sortType=HASHTAG_NUMBER_NUMERICAL"))
+                .POST(HttpRequest.BodyPublishers.noBody()));
+        final var jobId = objectMapper.readTree(job).get("id").asText();
+        String status;
+        do {
+            Thread.sleep(20);
+            status = objectMapper.readTree(send(HttpRequest.newBuilder(getUri("/api/youtube/jobs/" + jobId)).GET()))
+                    .get("status").asText();
+        } while (!status.equals("COMPLETED") && !status.equals("FAILED") && !status.equals("CANCELLED"));
+
+        final var wallTimeMillis = (System.nanoTime() - start) / 1_000_000;
+        final var peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+        Assertions.assertEquals("COMPLETED", status);
+        Assertions.assertEquals(expectedTitles, FAKE_YOUTUBE_API.getVideoTitles(playlistId));
+
+        final var result = new Result(playlistSize, order, wallTimeMillis, FAKE_YOUTUBE_API.getTotalCalls(),
+                FAKE_YOUTUBE_API.getCalls(ApiOperation.PLAYLIST_ITEMS_LIST),
+                FAKE_YOUTUBE_API.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE), FAKE_YOUTUBE_API.getQuotaUnits(),
+                peakHeapBytes);
+        RESULTS.add(result);
+        System.out.printf("%6d videos %-13s %8d ms %7d calls (%d list, %d update) %9d units %6d MiB peak heap%n",
+                playlistSize, order, wallTimeMillis, result.apiCalls(), result.listCalls(), result.updateCalls(),
+                result.quotaUnits(), peakHeapBytes >> 20);
+    }
+
+    @AfterAll
+    static void writeReport() throws IOException {
+        FAKE_YOUTUBE_API.close();
+        Files.createDirectories(REPORT_FILE.getParent());
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(REPORT_FILE.toFile(), RESULTS);
+    }
+
+    private String send(final HttpRequest.Builder request) throws IOException, InterruptedException {
+        final var response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        Assertions.assertTrue(response.statusCode() < 300, response.body());
+        return response.body();
+    }
+
+    private URI getUri(final String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static List<String> arrange(final List<String> sortedTitles, final Order order) {
+        final var titles = new ArrayList<>(sortedTitles);
+        final var random = new Random(titles.size());
+        switch (order) {
+            case SHUFFLED -> Collections.shuffle(titles, random);
+            case REVERSED -> Collections.reverse(titles);
+            case NEARLY_SORTED -> {
+                // 1% of the videos out of place
+                for (int i = 0; i < Math.max(1, titles.size() / 100); i++) {
+                    titles.add(random.nextInt(titles.size()), titles.remove(random.nextInt(titles.size())));
+                }
+            }
+        }
+        return titles;
+    }
+
+    private static List<String> createEpisodeTitles(final int count) {
+        final List<String> titles = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            titles.add("KILL TONY #" + i + " - GUEST " + i);
+        }
+        return titles;
+    }
+
+    private static FakeYouTubeApi startFakeYouTubeApi() {
+        try {
+            return new FakeYouTubeApi();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("playlist-sort-load-benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.deroahe.youtube_video_sorter.controller;
+
+import com.deroahe.youtube_video_sorter.fake.FakeYouTubeApi;
+import com.deroahe.youtube_video_sorter.service.BatchSortService;
+import com.deroahe.youtube_video_sorter.service.PlaylistSearchIndex;
+import com.deroahe.youtube_video_sorter.service.PlaylistSnapshotCache;
+import com.deroahe.youtube_video_sorter.service.QuotaLedger;
+import com.deroahe.youtube_video_sorter.service.SortedOrderStore;
+import com.deroahe.youtube_video_sorter.service.VideoMetadataCache;
+import com.deroahe.youtube_video_sorter.service.VideoMetadataService;
+import com.deroahe.youtube_video_sorter.service.YouTubePlaylistService;
+import com.deroahe.youtube_video_sorter.service.YouTubeRequestExecutor;
+import com.deroahe.youtube_video_sorter.service.YouTubeService;
+import com.deroahe.youtube_video_sorter.support.model.BatchSortRequest;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class BatchSortCommandTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    private FakeYouTubeApi fakeYouTubeApi;
+    private Path directory;
+    private BatchSortService batchSortService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fakeYouTubeApi = new FakeYouTubeApi();
+        directory = Files.createTempDirectory("batch-sort-command-test");
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var quotaLedger = new QuotaLedger(Long.MAX_VALUE, directory.resolve("quota.json").toString(),
+                Duration.ofSeconds(1), objectMapper, meterRegistry);
+        final var youTubeRequestExecutor = new YouTubeRequestExecutor(quotaLedger, meterRegistry, 1_000, 1, 1_000, 6,
+                Duration.ofMillis(1), Duration.ofMillis(10));
+        final var youTubeService = new YouTubeService(fakeYouTubeApi.getRootUrl(), false, "jdk", Duration.ofSeconds(5),
+                Duration.ofSeconds(30));
+        final var youTubePlaylistService = new YouTubePlaylistService(youTubeService, youTubeRequestExecutor,
+                new PlaylistSnapshotCache(directory.resolve("snapshots").toString(), Duration.ZERO, Duration.ZERO, 100),
+                quotaLedger, new SortedOrderStore(directory.resolve("sorted").toString(), objectMapper),
+                new VideoMetadataService(youTubeService, youTubeRequestExecutor,
+                        new VideoMetadataCache(Duration.ofHours(1), 1_000), 4),
+                new PlaylistSearchIndex(), meterRegistry, true, Locale.ENGLISH);
+        batchSortService = new BatchSortService(youTubePlaylistService, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fakeYouTubeApi.close();
+    }
+
+    @Test
+    void shouldPrintSummaryAndExitWithZeroWhenEveryPlaylistIsSorted() throws Exception {
+        final var titles = createEpisodeTitles(10);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", titles.reversed());
+
+        final var actualExitCode = runCommand(List.of(playlistId));
+        Assertions.assertEquals(0, actualExitCode);
+        Assertions.assertEquals(titles, fakeYouTubeApi.getVideoTitles(playlistId));
+
+        final var actualLines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        Assertions.assertEquals(2, actualLines.size());
+        Assertions.assertTrue(actualLines.get(0).startsWith(playlistId + " "));
+        Assertions.assertTrue(actualLines.get(0).contains(" sorted "));
+        Assertions.assertTrue(actualLines.get(0).contains(" 9 moves "));
+        Assertions.assertEquals("Sorted 1 of 1 playlists with 0 removals and 9 moves (450 quota units)",
+                actualLines.get(1));
+    }
+
+    @Test
+    void shouldPrintFailureAndExitWithOneWhenAPlaylistFails() throws Exception {
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(10).reversed());
+
+        final var actualExitCode = runCommand(List.of(playlistId, "PLmissing"));
+        Assertions.assertEquals(1, actualExitCode);
+
+        final var actualLines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        Assertions.assertEquals(3, actualLines.size());
+        Assertions.assertTrue(actualLines.get(0).contains(" sorted "));
+        Assertions.assertTrue(actualLines.get(1).startsWith("PLmissing "));
+        Assertions.assertTrue(actualLines.get(1).endsWith(" FAILED  404 Playlist not found"));
+        Assertions.assertTrue(actualLines.get(2).startsWith("Sorted 1 of 2 playlists"));
+    }
+
+    /**
+     * Runs the command on a job file with one batch of the playlists and returns the exit code that main passes on,
+     * i.e. what {@link SpringApplication#exit} makes of the context holding the command.
+     */
+    private int runCommand(final List<String> playlistIds) throws Exception {
+        final var jobFile = directory.resolve("sort-jobs.json");
+        objectMapper.writeValue(jobFile.toFile(), List.of(new BatchSortRequest(playlistIds, null,
+                SortType.HASHTAG_NUMBER_NUMERICAL, true, false)));
+        final var command = new BatchSortCommand(batchSortService, objectMapper, jobFile.toString(),
+                new PrintStream(output, true, StandardCharsets.UTF_8));
+
+        command.run();
+
+        try (final var context = new GenericApplicationContext()) {
+            context.registerBean(BatchSortCommand.class, () -> command);
+            context.refresh();
+            return SpringApplication.exit(context);
+        }
+    }
+
+    private static List<String> createEpisodeTitles(final int count) {
+        final List<String> titles = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            titles.add("KILL TONY #" + i + " - GUEST " + i);
+        }
+        return titles;
+    }
+}
@@ -0,0 +1,126 @@
+package com.deroahe.youtube_video_sorter.controller;
+
+import com.deroahe.youtube_video_sorter.fake.FakeYouTubeApi;
+import com.deroahe.youtube_video_sorter.service.BatchSortService;
+import com.deroahe.youtube_video_sorter.service.PlaylistSearchIndex;
+import com.deroahe.youtube_video_sorter.service.PlaylistSnapshotCache;
+import com.deroahe.youtube_video_sorter.service.QuotaLedger;
+import com.deroahe.youtube_video_sorter.service.SortJobJournal;
+import com.deroahe.youtube_video_sorter.service.SortJobService;
+import com.deroahe.youtube_video_sorter.service.SortedOrderStore;
+import com.deroahe.youtube_video_sorter.service.VideoMetadataCache;
+import com.deroahe.youtube_video_sorter.service.VideoMetadataService;
+import com.deroahe.youtube_video_sorter.service.YouTubePlaylistService;
+import com.deroahe.youtube_video_sorter.service.YouTubeRequestExecutor;
+import com.deroahe.youtube_video_sorter.service.YouTubeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class YouTubeControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private FakeYouTubeApi fakeYouTubeApi;
+    private SortJobService sortJobService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fakeYouTubeApi = new FakeYouTubeApi();
+        final var directory = Files.createTempDirectory("youtube-controller-test");
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var quotaLedger = new QuotaLedger(Long.MAX_VALUE, directory.resolve("quota.json").toString(),
+                Duration.ofSeconds(1), objectMapper, meterRegistry);
+        final var youTubeRequestExecutor = new YouTubeRequestExecutor(quotaLedger, meterRegistry, 1_000, 1, 1_000, 6,
+                Duration.ofMillis(1), Duration.ofMillis(10));
+        final var youTubeService = new YouTubeService(fakeYouTubeApi.getRootUrl(), false, "jdk", Duration.ofSeconds(5),
+                Duration.ofSeconds(30));
+        final var youTubePlaylistService = new YouTubePlaylistService(youTubeService, youTubeRequestExecutor,
+                new PlaylistSnapshotCache(directory.resolve("snapshots").toString(), Duration.ZERO, Duration.ZERO, 100),
+                quotaLedger, new SortedOrderStore(directory.resolve("sorted").toString(), objectMapper),
+                new VideoMetadataService(youTubeService, youTubeRequestExecutor,
+                        new VideoMetadataCache(Duration.ofHours(1), 1_000), 4),
+                new PlaylistSearchIndex(), meterRegistry, true, Locale.ENGLISH);
+        sortJobService = new SortJobService(youTubePlaylistService,
+                new SortJobJournal(directory.resolve("jobs").toString(), objectMapper), quotaLedger, 1, 10, false,
+                Duration.ofHours(1));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new YouTubeController(youTubePlaylistService, sortJobService,
+                new BatchSortService(youTubePlaylistService, 2), objectMapper)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sortJobService.shutdown();
+        fakeYouTubeApi.close();
+    }
+
+    @Test
+    void shouldStreamVideosInPlaylistAsOneJsonObjectPerLine() throws Exception {
+        final var titles = createTitles(120);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", titles);
+
+        final var actualLines = getStreamedLines("/api/youtube/" + playlistId + "/stream");
+        final List<String> actualTitles = new ArrayList<>();
+        for (final var line : actualLines) {
+            actualTitles.add(objectMapper.readTree(line).path("snippet").path("title").asText());
+        }
+        // 120 videos come in 3 pages of the API, all of them streamed in order
+        Assertions.assertEquals(titles, actualTitles);
+    }
+
+    @Test
+    void shouldStreamAllPlaylistsAsOneJsonObjectPerLine() throws Exception {
+        final var playlistIds = List.of(fakeYouTubeApi.addPlaylist("Kill Tony", createTitles(1)),
+                fakeYouTubeApi.addPlaylist("Flagrant", createTitles(1)));
+
+        final var actualLines = getStreamedLines("/api/youtube/stream");
+        final List<String> actualPlaylistIds = new ArrayList<>();
+        for (final var line : actualLines) {
+            actualPlaylistIds.add(objectMapper.readTree(line).path("id").asText());
+        }
+        Assertions.assertEquals(playlistIds, actualPlaylistIds);
+    }
+
+    /**
+     * Runs the request through to the end of its stream and checks it is newline-delimited JSON ending in a newline.
+     */
+    private List<String> getStreamedLines(final String path) throws Exception {
+        final MvcResult asyncResult = mockMvc.perform(get(path).accept(MediaType.APPLICATION_NDJSON)).andReturn();
+        Assertions.assertTrue(asyncResult.getRequest().isAsyncStarted());
+
+        final var response = mockMvc.perform(asyncDispatch(asyncResult)).andReturn().getResponse();
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertEquals(MediaType.APPLICATION_NDJSON, MediaType.parseMediaType(response.getContentType()));
+
+        final var body = response.getContentAsString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(body.endsWith("\n"));
+        return body.lines().toList();
+    }
+
+    private static List<String> createTitles(final int count) {
+        final List<String> titles = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            titles.add("Episode #" + i);
+        }
+        return titles;
+    }
+}
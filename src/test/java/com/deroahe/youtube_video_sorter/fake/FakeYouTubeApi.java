@@ -0,0 +1,499 @@
+package com.deroahe.youtube_video_sorter.fake;
+
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.util.DateTime;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.services.youtube.model.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * In-process stand-in for the parts of the YouTube Data API v3 the application uses: {@code playlists.list},
+ * {@code playlistItems.list}, {@code playlistItems.update}, {@code playlistItems.delete} and {@code videos.list}.
+ * <p>
+ * Lists are paged with page tokens and carry a per-page ETag, answering 304 to a matching {@code If-None-Match}.
+ * Updating an item's position removes it and inserts it at the new position, shifting the items in between, like the
+ * real API does. Videos only have metadata once it's set with {@link #setVideoMetadata}; {@code videos.list} leaves out
+ * the others, like the real API leaves out deleted and private videos. Every request can be delayed and can fail at random or on demand, to exercise retries and throttling.
+ */
+public class FakeYouTubeApi implements AutoCloseable {
+
+    private static final JsonFactory JSON_FACTORY = JacksonFactory.getDefaultInstance();
+    private static final String SERVICE_PATH = "/youtube/v3/";
+    private static final int MAX_RESULTS = 50;
+
+    private final HttpServer server;
+    private final Map<String, Playlist> playlists = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, List<PlaylistItem>> playlistItems = new ConcurrentHashMap<>();
+    private final Map<String, Video> videos = new ConcurrentHashMap<>();
+    private final Map<ApiOperation, AtomicLong> calls = new EnumMap<>(ApiOperation.class);
+    private final AtomicLong itemIds = new AtomicLong();
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private final AtomicInteger maxRequestsInFlight = new AtomicInteger();
+
+    private final Queue<InjectedError> injectedErrors = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong lostDeleteResponses = new AtomicLong();
+
+    private volatile long latencyMillis;
+    private volatile double serverErrorRate;
+    private volatile double rateLimitErrorRate;
+
+    private record InjectedError(int code, String reason) {
+    }
+
+    static {
+        // Without it, responses written in two parts wait for the client's delayed ACK, adding ~40 ms to every call
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public FakeYouTubeApi() throws IOException {
+        for (final var operation : ApiOperation.values()) {
+            calls.put(operation, new AtomicLong());
+        }
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(SERVICE_PATH, this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    /**
+     * The value for {@code youtube.api.root-url}.
+     */
+    public String getRootUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    public void setLatencyMillis(final long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * @param serverErrorRate    the share of requests that fail with 503 backendError
+     * @param rateLimitErrorRate the share of requests that fail with 403 rateLimitExceeded
+     */
+    public void setErrorRates(final double serverErrorRate, final double rateLimitErrorRate) {
+        this.serverErrorRate = serverErrorRate;
+        this.rateLimitErrorRate = rateLimitErrorRate;
+    }
+
+    /**
+     * Makes the next {@code count} requests, whatever they are, fail with the given status and error reason.
+     */
+    public void failNextRequests(final int count, final int code, final String reason) {
+        for (int i = 0; i < count; i++) {
+            injectedErrors.add(new InjectedError(code, reason));
+        }
+    }
+
+    /**
+     * Makes the next {@code count} deletes delete the item but answer 503, like a delete whose response was lost.
+     */
+    public void loseNextDeleteResponses(final int count) {
+        lostDeleteResponses.addAndGet(count);
+    }
+
+    public String addPlaylist(final String title, final List<String> videoTitles) {
+        final var playlistId = "PL" + UUID.randomUUID().toString().replace("-", "");
+        final List<PlaylistItem> items = new ArrayList<>(videoTitles.size());
+        for (final var videoTitle : videoTitles) {
+            items.add(createPlaylistItem(playlistId, videoTitle));
+        }
+        renumber(items);
+
+        playlistItems.put(playlistId, items);
+        playlists.put(playlistId, new Playlist()
+                .setKind("youtube#playlist")
+                .setId(playlistId)
+                .setSnippet(new PlaylistSnippet().setTitle(title))
+                .setContentDetails(new PlaylistContentDetails().setItemCount((long) items.size())));
+        return playlistId;
+    }
+
+    /**
+     * Appends videos to the end of the playlist, like new uploads added to it.
+     */
+    public void addVideos(final String playlistId, final List<String> videoTitles) {
+        final var items = playlistItems.get(playlistId);
+        synchronized (items) {
+            for (final var videoTitle : videoTitles) {
+                items.add(createPlaylistItem(playlistId, videoTitle));
+            }
+            renumber(items);
+        }
+    }
+
+    /**
+     * Appends an item holding the given video, e.g. a video that is already in the playlist.
+     */
+    public void addVideo(final String playlistId, final String videoId, final String videoTitle) {
+        final var items = playlistItems.get(playlistId);
+        synchronized (items) {
+            final var item = createPlaylistItem(playlistId, videoTitle);
+            item.getSnippet().getResourceId().setVideoId(videoId);
+            items.add(item);
+            renumber(items);
+        }
+    }
+
+    /**
+     * Appends the placeholder item of a deleted or private video, which has no owner channel.
+     */
+    public void addUnavailableVideo(final String playlistId, final String videoId, final String videoTitle) {
+        final var items = playlistItems.get(playlistId);
+        synchronized (items) {
+            final var item = createPlaylistItem(playlistId, videoTitle);
+            item.getSnippet().getResourceId().setVideoId(videoId);
+            item.getSnippet().remove("videoOwnerChannelId");
+            items.add(item);
+            renumber(items);
+        }
+    }
+
+    /**
+     * The titles of the playlist's videos, in position order.
+     */
+    public List<String> getVideoTitles(final String playlistId) {
+        final var items = playlistItems.get(playlistId);
+        synchronized (items) {
+            return items.stream().map(item -> item.getSnippet().getTitle()).toList();
+        }
+    }
+
+    /**
+     * The video ids of the playlist's videos, in position order.
+     */
+    public List<String> getVideoIds(final String playlistId) {
+        final var items = playlistItems.get(playlistId);
+        synchronized (items) {
+            return items.stream().map(item -> item.getSnippet().getResourceId().getVideoId()).toList();
+        }
+    }
+
+    public void setVideoMetadata(final String videoId, final Instant publishedAt, final Duration duration,
+                                 final long viewCount) {
+        videos.put(videoId, new Video()
+                .setKind("youtube#video")
+                .setId(videoId)
+                .setSnippet(new VideoSnippet().setPublishedAt(new DateTime(publishedAt.toEpochMilli())))
+                .setContentDetails(new VideoContentDetails().setDuration(duration.toString()))
+                .setStatistics(new VideoStatistics().setViewCount(BigInteger.valueOf(viewCount))));
+    }
+
+    private PlaylistItem createPlaylistItem(final String playlistId, final String videoTitle) {
+        final var itemId = "item" + itemIds.incrementAndGet();
+        return new PlaylistItem()
+                .setKind("youtube#playlistItem")
+                .setId(itemId)
+                .setSnippet(new PlaylistItemSnippet()
+                        .setPlaylistId(playlistId)
+                        .setTitle(videoTitle)
+                        .setResourceId(new ResourceId().setKind("youtube#video").setVideoId("video" + itemId))
+                        .set("videoOwnerChannelId", "UCfake"));
+    }
+
+    public long getCalls(final ApiOperation operation) {
+        return calls.get(operation).get();
+    }
+
+    public long getTotalCalls() {
+        return calls.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public long getQuotaUnits() {
+        return calls.entrySet().stream().mapToLong(entry -> entry.getKey().getQuotaCost() * entry.getValue().get()).sum();
+    }
+
+    /**
+     * The most requests that were being handled at the same time, counting their latency only.
+     */
+    public int getMaxRequestsInFlight() {
+        return maxRequestsInFlight.get();
+    }
+
+    public void resetCounters() {
+        calls.values().forEach(counter -> counter.set(0));
+        maxRequestsInFlight.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try (exchange) {
+            final var resource = exchange.getRequestURI().getPath().substring(SERVICE_PATH.length());
+            final var method = exchange.getRequestMethod();
+            final var parameters = getParameters(exchange.getRequestURI().getRawQuery());
+
+            final ApiOperation operation;
+            if (resource.equals("playlists") && method.equals("GET")) {
+                operation = ApiOperation.PLAYLISTS_LIST;
+            } else if (resource.equals("playlistItems") && method.equals("GET")) {
+                operation = ApiOperation.PLAYLIST_ITEMS_LIST;
+            } else if (resource.equals("playlistItems") && method.equals("PUT")) {
+                operation = ApiOperation.PLAYLIST_ITEMS_UPDATE;
+            } else if (resource.equals("playlistItems") && method.equals("DELETE")) {
+                operation = ApiOperation.PLAYLIST_ITEMS_DELETE;
+            } else if (resource.equals("videos") && method.equals("GET")) {
+                operation = ApiOperation.VIDEOS_LIST;
+            } else {
+                sendError(exchange, 404, "notFound", "Unknown resource " + method + " " + resource);
+                return;
+            }
+            calls.get(operation).incrementAndGet();
+
+            maxRequestsInFlight.accumulateAndGet(requestsInFlight.incrementAndGet(), Math::max);
+            try {
+                if (latencyMillis > 0) {
+                    Thread.sleep(latencyMillis);
+                }
+            } finally {
+                requestsInFlight.decrementAndGet();
+            }
+            final var injectedError = injectedErrors.poll();
+            if (injectedError != null) {
+                sendError(exchange, injectedError.code(), injectedError.reason(), "Injected error");
+                return;
+            }
+            final var random = ThreadLocalRandom.current().nextDouble();
+            if (random < serverErrorRate) {
+                sendError(exchange, 503, "backendError", "Injected server error");
+                return;
+            }
+            if (random < serverErrorRate + rateLimitErrorRate) {
+                sendError(exchange, 403, "rateLimitExceeded", "Injected rate limit error");
+                return;
+            }
+
+            switch (operation) {
+                case PLAYLISTS_LIST -> listPlaylists(exchange, parameters);
+                case PLAYLIST_ITEMS_LIST -> listPlaylistItems(exchange, parameters);
+                case PLAYLIST_ITEMS_UPDATE -> updatePlaylistItem(exchange);
+                case PLAYLIST_ITEMS_DELETE -> deletePlaylistItem(exchange, parameters);
+                case VIDEOS_LIST -> listVideos(exchange, parameters);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void listPlaylists(final HttpExchange exchange, final Map<String, String> parameters) throws IOException {
+        final List<Playlist> allPlaylists;
+        synchronized (playlists) {
+            allPlaylists = List.copyOf(playlists.values());
+        }
+
+        final var offset = getOffset(parameters);
+        final var page = allPlaylists.subList(Math.min(offset, allPlaylists.size()),
+                Math.min(offset + getMaxResults(parameters), allPlaylists.size()));
+        final var response = new PlaylistListResponse()
+                .setKind("youtube#playlistListResponse")
+                .setItems(List.copyOf(page))
+                .setNextPageToken(getNextPageToken(offset, page.size(), allPlaylists.size()))
+                .setPageInfo(new PageInfo().setTotalResults(allPlaylists.size()).setResultsPerPage(MAX_RESULTS));
+        sendPage(exchange, response);
+    }
+
+    private void listPlaylistItems(final HttpExchange exchange, final Map<String, String> parameters) throws IOException {
+        final var items = playlistItems.get(parameters.get("playlistId"));
+        if (items == null) {
+            sendError(exchange, 404, "playlistNotFound", "Playlist not found");
+            return;
+        }
+
+        final var offset = getOffset(parameters);
+        final PlaylistItemListResponse response;
+        synchronized (items) {
+            final var page = items.subList(Math.min(offset, items.size()),
+                    Math.min(offset + getMaxResults(parameters), items.size()));
+            response = new PlaylistItemListResponse()
+                    .setKind("youtube#playlistItemListResponse")
+                    .setItems(page.stream().map(PlaylistItem::clone).toList())
+                    .setNextPageToken(getNextPageToken(offset, page.size(), items.size()))
+                    .setPageInfo(new PageInfo().setTotalResults(items.size()).setResultsPerPage(MAX_RESULTS));
+        }
+        sendPage(exchange, response);
+    }
+
+    private void listVideos(final HttpExchange exchange, final Map<String, String> parameters) throws IOException {
+        final var ids = parameters.getOrDefault("id", "").split(",");
+        if (ids.length > MAX_RESULTS) {
+            sendError(exchange, 400, "invalidParameter", "More than " + MAX_RESULTS + " ids");
+            return;
+        }
+
+        final List<Video> foundVideos = new ArrayList<>();
+        for (final var id : ids) {
+            final var video = videos.get(id);
+            if (video != null) {
+                foundVideos.add(video.clone());
+            }
+        }
+        sendPage(exchange, new VideoListResponse()
+                .setKind("youtube#videoListResponse")
+                .setItems(foundVideos)
+                .setPageInfo(new PageInfo().setTotalResults(foundVideos.size()).setResultsPerPage(foundVideos.size())));
+    }
+
+    private void updatePlaylistItem(final HttpExchange exchange) throws IOException {
+        final var update = JSON_FACTORY.fromString(readBody(exchange), PlaylistItem.class);
+        final var items = update.getSnippet() == null ? null : playlistItems.get(update.getSnippet().getPlaylistId());
+        if (items == null) {
+            sendError(exchange, 404, "playlistNotFound", "Playlist not found");
+            return;
+        }
+
+        final PlaylistItem updatedItem;
+        synchronized (items) {
+            final var index = indexOf(items, update.getId());
+            if (index < 0) {
+                sendError(exchange, 404, "playlistItemNotFound", "Playlist item not found");
+                return;
+            }
+            final var position = update.getSnippet().getPosition();
+            if (position == null || position < 0 || position >= items.size()) {
+                sendError(exchange, 400, "invalidPlaylistItemPosition", "Invalid position " + position);
+                return;
+            }
+
+            final var item = items.remove(index);
+            items.add(position.intValue(), item);
+            renumber(items, Math.min(index, position.intValue()), Math.max(index, position.intValue()) + 1);
+            updatedItem = item.clone();
+        }
+        send(exchange, 200, JSON_FACTORY.toString(updatedItem));
+    }
+
+    private void deletePlaylistItem(final HttpExchange exchange, final Map<String, String> parameters) throws IOException {
+        final var itemId = parameters.get("id");
+        for (final var items : playlistItems.values()) {
+            synchronized (items) {
+                final var index = indexOf(items, itemId);
+                if (index >= 0) {
+                    items.remove(index);
+                    renumber(items, index, items.size());
+                    if (lostDeleteResponses.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                        sendError(exchange, 503, "backendError", "Injected error after deleting");
+                        return;
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                    return;
+                }
+            }
+        }
+        sendError(exchange, 404, "playlistItemNotFound", "Playlist item not found");
+    }
+
+    /**
+     * The client library gzips request bodies unless told otherwise.
+     */
+    private static String readBody(final HttpExchange exchange) throws IOException {
+        var body = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            body = new GZIPInputStream(body);
+        }
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static void sendPage(final HttpExchange exchange, final GenericJson page) throws IOException {
+        final var content = JSON_FACTORY.toString(page);
+        final var eTag = "\"" + Integer.toHexString(content.hashCode()) + "\"";
+        if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.getResponseHeaders().set("ETag", eTag);
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        page.set("etag", eTag);
+        exchange.getResponseHeaders().set("ETag", eTag);
+        send(exchange, 200, JSON_FACTORY.toString(page));
+    }
+
+    private static void sendError(final HttpExchange exchange, final int code, final String reason, final String message)
+            throws IOException {
+        final var error = new GenericJson()
+                .set("code", code)
+                .set("message", message)
+                .set("errors", List.of(new GenericJson()
+                        .set("domain", "youtube.fake")
+                        .set("reason", reason)
+                        .set("message", message)));
+        send(exchange, code, JSON_FACTORY.toString(new GenericJson().set("error", error)));
+    }
+
+    private static void send(final HttpExchange exchange, final int code, final String content) throws IOException {
+        final var bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void renumber(final List<PlaylistItem> items) {
+        renumber(items, 0, items.size());
+    }
+
+    private static void renumber(final List<PlaylistItem> items, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            items.get(i).getSnippet().setPosition((long) i);
+        }
+    }
+
+    private static int indexOf(final List<PlaylistItem> items, final String itemId) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getId().equals(itemId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int getOffset(final Map<String, String> parameters) {
+        final var pageToken = parameters.get("pageToken");
+        return pageToken == null ? 0 : Integer.parseInt(pageToken.substring("offset".length()));
+    }
+
+    private static int getMaxResults(final Map<String, String> parameters) {
+        final var maxResults = parameters.get("maxResults");
+        return maxResults == null ? 5 : Math.min(MAX_RESULTS, Integer.parseInt(maxResults));
+    }
+
+    private static String getNextPageToken(final int offset, final int pageSize, final int total) {
+        return offset + pageSize < total ? "offset" + (offset + pageSize) : null;
+    }
+
+    private static Map<String, String> getParameters(final String rawQuery) {
+        final Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null) {
+            return parameters;
+        }
+        for (final var parameter : rawQuery.split("&")) {
+            final var separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+}
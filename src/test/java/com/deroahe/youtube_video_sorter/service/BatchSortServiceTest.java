@@ -0,0 +1,103 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.fake.FakeYouTubeApi;
+import com.deroahe.youtube_video_sorter.support.model.BatchSortRequest;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistSortResult;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+class BatchSortServiceTest {
+
+    private FakeYouTubeApi fakeYouTubeApi;
+    private BatchSortService batchSortService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fakeYouTubeApi = new FakeYouTubeApi();
+        final var directory = Files.createTempDirectory("batch-sort-service-test");
+        final var objectMapper = new ObjectMapper().findAndRegisterModules();
+        final var meterRegistry = new SimpleMeterRegistry();
+        final var quotaLedger = new QuotaLedger(Long.MAX_VALUE, directory.resolve("quota.json").toString(),
+                Duration.ofSeconds(1), objectMapper, meterRegistry);
+        final var youTubeRequestExecutor = new YouTubeRequestExecutor(quotaLedger, meterRegistry, 1_000, 1, 1_000, 6,
+                Duration.ofMillis(1), Duration.ofMillis(10));
+        final var youTubeService = new YouTubeService(fakeYouTubeApi.getRootUrl(), false, "jdk", Duration.ofSeconds(5),
+                Duration.ofSeconds(30));
+        final var youTubePlaylistService = new YouTubePlaylistService(youTubeService, youTubeRequestExecutor,
+                new PlaylistSnapshotCache(directory.resolve("snapshots").toString(), Duration.ZERO, Duration.ZERO, 100),
+                quotaLedger, new SortedOrderStore(directory.resolve("sorted").toString(), objectMapper),
+                new VideoMetadataService(youTubeService, youTubeRequestExecutor,
+                        new VideoMetadataCache(Duration.ofHours(1), 1_000), 4),
+                new PlaylistSearchIndex(), meterRegistry, true, Locale.ENGLISH);
+
+        batchSortService = new BatchSortService(youTubePlaylistService, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fakeYouTubeApi.close();
+    }
+
+    @Test
+    void shouldSortEveryPlaylistDespiteOneFailing() throws Exception {
+        final var titles = createEpisodeTitles(30);
+        final List<String> playlistIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            playlistIds.add(fakeYouTubeApi.addPlaylist("Kill Tony " + i, titles.reversed()));
+        }
+        playlistIds.add(2, "PLmissing");
+
+        final var actualResults = batchSortService.sortPlaylists(new BatchSortRequest(playlistIds, null,
+                SortType.HASHTAG_NUMBER_NUMERICAL, true, false));
+        Assertions.assertEquals(playlistIds, actualResults.stream().map(PlaylistSortResult::playlistId).toList());
+
+        final var failedResult = actualResults.get(2);
+        Assertions.assertFalse(failedResult.sorted());
+        Assertions.assertNotNull(failedResult.error());
+        Assertions.assertEquals(0, failedResult.quotaCost());
+
+        for (final var playlistId : playlistIds) {
+            if (!playlistId.equals("PLmissing")) {
+                Assertions.assertEquals(titles, fakeYouTubeApi.getVideoTitles(playlistId));
+            }
+        }
+        Assertions.assertEquals(5, actualResults.stream().filter(PlaylistSortResult::sorted).count());
+        Assertions.assertTrue(actualResults.stream().filter(PlaylistSortResult::sorted)
+                .allMatch(result -> result.moves() == 29 && result.quotaCost() == 29 * 50));
+    }
+
+    @Test
+    void shouldSortNoMorePlaylistsAtOnceThanAllowed() throws Exception {
+        final List<String> playlistIds = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            playlistIds.add(fakeYouTubeApi.addPlaylist("Kill Tony " + i, createEpisodeTitles(10).reversed()));
+        }
+        fakeYouTubeApi.setLatencyMillis(20);
+
+        final var actualResults = batchSortService.sortPlaylists(new BatchSortRequest(playlistIds, null,
+                SortType.HASHTAG_NUMBER_NUMERICAL, true, false));
+        Assertions.assertTrue(actualResults.stream().allMatch(PlaylistSortResult::sorted));
+        // Each sort makes one call at a time, so the calls in flight are the playlists being sorted
+        Assertions.assertEquals(2, fakeYouTubeApi.getMaxRequestsInFlight());
+    }
+
+    private static List<String> createEpisodeTitles(final int count) {
+        final List<String> titles = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            titles.add("KILL TONY #" + i + " - GUEST " + i);
+        }
+        return titles;
+    }
+}
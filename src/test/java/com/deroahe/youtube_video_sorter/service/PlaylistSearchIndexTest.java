@@ -0,0 +1,104 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.SearchHit;
+import com.google.api.services.youtube.model.Playlist;
+import com.google.api.services.youtube.model.PlaylistItem;
+import com.google.api.services.youtube.model.PlaylistItemSnippet;
+import com.google.api.services.youtube.model.PlaylistSnippet;
+import com.google.api.services.youtube.model.ResourceId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+class PlaylistSearchIndexTest {
+
+    private PlaylistSearchIndex playlistSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        playlistSearchIndex = new PlaylistSearchIndex();
+        playlistSearchIndex.putPlaylists(List.of(createPlaylist("tony", "Kill Tony"), createPlaylist("misc", "Misc")));
+        playlistSearchIndex.putPlaylistItems("tony", List.of(
+                createPlaylistItem("tony", "item1", "KILL TONY #94 - IAN EDWARDS", 0),
+                createPlaylistItem("tony", "item2", "KILL TONY #95 - JIM NORTON", 1)
+        ));
+        playlistSearchIndex.putPlaylistItems("misc", List.of(
+                createPlaylistItem("misc", "item3", "Crème brûlée tutorial", 0),
+                createPlaylistItem("misc", "item4", "Kill Tony highlights", 1)
+        ));
+    }
+
+    @Test
+    void shouldTokenizeIntoLowercaseTokensWithoutAccents() {
+        Assertions.assertEquals(List.of("kill", "tony", "94", "creme", "brulee"),
+                PlaylistSearchIndex.tokenize("KILL TONY #94 – Crème-Brûlée, kill"));
+    }
+
+    @Test
+    void shouldMatchEveryQueryTokenAcrossPlaylists() {
+        final var actualPage = playlistSearchIndex.search("tony kill", false, 0, 50);
+        Assertions.assertEquals(4, actualPage.total());
+        Assertions.assertEquals(List.of("tony", "item4", "item1", "item2"), actualPage.hits().stream()
+                .map(hit -> hit.playlistItemId() == null ? hit.playlistId() : hit.playlistItemId())
+                .toList());
+        Assertions.assertEquals("Misc", actualPage.hits().get(1).playlistTitle());
+    }
+
+    @Test
+    void shouldMatchPrefixesOnlyWhenAsked() {
+        Assertions.assertEquals(0, playlistSearchIndex.search("edw", false, 0, 50).total());
+        Assertions.assertEquals(List.of(new SearchHit("tony", "Kill Tony", "item1", "video-item1",
+                        "KILL TONY #94 - IAN EDWARDS", 0L)),
+                playlistSearchIndex.search("edw", true, 0, 50).hits());
+        Assertions.assertEquals(1, playlistSearchIndex.search("creme", true, 0, 50).total());
+    }
+
+    @Test
+    void shouldPageHits() {
+        final var actualPage = playlistSearchIndex.search("kill", false, 2, 1);
+        Assertions.assertEquals(4, actualPage.total());
+        Assertions.assertEquals("item1", actualPage.hits().getFirst().playlistItemId());
+    }
+
+    @Test
+    void shouldPageHitsAtLargeOffset() {
+        final var actualPage = playlistSearchIndex.search("kill", false, 2, Integer.MAX_VALUE);
+        Assertions.assertEquals(2, actualPage.hits().size());
+        Assertions.assertTrue(playlistSearchIndex.search("kill", false, Integer.MAX_VALUE, 50).hits().isEmpty());
+    }
+
+    @Test
+    void shouldDropItemsMissingFromRefetchAndShiftPositionsAfterRemoval() {
+        playlistSearchIndex.retainPlaylistItems("tony", Set.of("item2"));
+        Assertions.assertEquals(0, playlistSearchIndex.search("edwards", false, 0, 50).total());
+
+        playlistSearchIndex.removePlaylistItems("misc", List.of("item3"));
+        final var actualHit = playlistSearchIndex.search("highlights", false, 0, 50).hits().getFirst();
+        Assertions.assertEquals(Long.valueOf(0), actualHit.position());
+    }
+
+    @Test
+    void shouldDropPlaylistsMissingFromRefetchWithTheirItems() {
+        playlistSearchIndex.retainPlaylists(Set.of("tony"));
+        Assertions.assertEquals(0, playlistSearchIndex.search("misc", false, 0, 50).total());
+        Assertions.assertEquals(0, playlistSearchIndex.search("highlights", false, 0, 50).total());
+    }
+
+    private static Playlist createPlaylist(final String playlistId, final String title) {
+        return new Playlist().setId(playlistId).setSnippet(new PlaylistSnippet().setTitle(title));
+    }
+
+    private static PlaylistItem createPlaylistItem(final String playlistId, final String playlistItemId,
+                                                   final String videoTitle, final long position) {
+        return new PlaylistItem()
+                .setId(playlistItemId)
+                .setSnippet(new PlaylistItemSnippet()
+                        .setPlaylistId(playlistId)
+                        .setTitle(videoTitle)
+                        .setPosition(position)
+                        .setResourceId(new ResourceId().setVideoId("video-" + playlistItemId)));
+    }
+}
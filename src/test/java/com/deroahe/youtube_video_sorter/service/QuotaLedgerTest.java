@@ -0,0 +1,201 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.exception.QuotaBudgetExceededException;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+class QuotaLedgerTest {
+
+    private static final ZoneId PACIFIC = ZoneId.of("America/Los_Angeles");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MutableClock clock = new MutableClock(ZonedDateTime.of(2026, 3, 10, 23, 59, 0, 0, PACIFIC).toInstant());
+    private String file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempDirectory("quota-ledger-test").resolve("usage.json").toString();
+    }
+
+    @Test
+    void shouldStartNewDayAtPacificMidnight() {
+        final var quotaLedger = createQuotaLedger(10_000);
+        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_UPDATE);
+
+        // Already March 11 in UTC, still March 10 in Pacific time
+        Assertions.assertEquals(LocalDate.of(2026, 3, 10), quotaLedger.getUsage().quotaDay());
+        Assertions.assertEquals(50, quotaLedger.getUsage().unitsUsed());
+        Assertions.assertEquals(ZonedDateTime.of(2026, 3, 11, 0, 0, 0, 0, PACIFIC).toInstant(), quotaLedger.getResetsAt());
+
+        clock.advance(Duration.ofMinutes(2));
+        final var usage = quotaLedger.getUsage();
+        Assertions.assertEquals(LocalDate.of(2026, 3, 11), usage.quotaDay());
+        Assertions.assertEquals(0, usage.unitsUsed());
+        Assertions.assertEquals(10_000, usage.unitsRemaining());
+        Assertions.assertTrue(usage.callsByOperation().isEmpty());
+    }
+
+    @Test
+    void shouldKeepUsageAcrossRestarts() {
+        final var quotaLedger = createQuotaLedger(10_000);
+        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_LIST);
+        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_UPDATE);
+        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_UPDATE);
+        quotaLedger.shutdown();
+
+        final var restartedQuotaLedger = createQuotaLedger(10_000);
+        final var usage = restartedQuotaLedger.getUsage();
+        Assertions.assertEquals(101, usage.unitsUsed());
+        Assertions.assertEquals(9_899, usage.unitsRemaining());
+        Assertions.assertEquals(2, (long) usage.callsByOperation().get(ApiOperation.PLAYLIST_ITEMS_UPDATE));
+    }
+
+    @Test
+    void shouldWriteUsageOnlyOnFlushOrShutdown() {
+        final var quotaLedger = createQuotaLedger(10_000);
+        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_LIST);
+        Assertions.assertFalse(Files.exists(Path.of(file)));
+
+        quotaLedger.flush();
+        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_UPDATE);
+        Assertions.assertEquals(1, createQuotaLedger(10_000).getUsage().unitsUsed());
+
+        quotaLedger.shutdown();
+        Assertions.assertEquals(51, createQuotaLedger(10_000).getUsage().unitsUsed());
+    }
+
+    @Test
+    void shouldForgetUsageOfPreviousDayOnRestart() {
+        createQuotaLedger(10_000).record(ApiOperation.PLAYLIST_ITEMS_UPDATE);
+
+        clock.advance(Duration.ofHours(1));
+        Assertions.assertEquals(0, createQuotaLedger(10_000).getUsage().unitsUsed());
+    }
+
+    @Test
+    void shouldAdmitNoMoreWorkOnceMarkedExhausted() {
+        final var quotaLedger = createQuotaLedger(10_000);
+        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_LIST);
+
+        quotaLedger.markExhausted();
+        Assertions.assertEquals(0, quotaLedger.getRemainingUnits());
+        Assertions.assertThrows(QuotaBudgetExceededException.class, () -> quotaLedger.reserve(1));
+        Assertions.assertEquals(0, createQuotaLedger(10_000).getRemainingUnits());
+
+        clock.advance(Duration.ofHours(1));
+        Assertions.assertEquals(10_000, quotaLedger.getRemainingUnits());
+    }
+
+    @Test
+    void shouldReturnUnspentUnitsOfReservation() {
+        final var quotaLedger = createQuotaLedger(1_000);
+
+        try (final var reservation = quotaLedger.reserve(500)) {
+            Assertions.assertEquals(500, reservation.getUnits());
+            Assertions.assertEquals(500, quotaLedger.getRemainingUnits());
+
+            quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_UPDATE);
+            quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_UPDATE);
+            Assertions.assertEquals(500, quotaLedger.getRemainingUnits());
+            Assertions.assertEquals(400, quotaLedger.getUsage().unitsReserved());
+        }
+
+        Assertions.assertEquals(900, quotaLedger.getRemainingUnits());
+        Assertions.assertEquals(0, quotaLedger.getUsage().unitsReserved());
+    }
+
+    @Test
+    void shouldNotLetConcurrentReservationsOverspend() throws Exception {
+        final var quotaLedger = createQuotaLedger(1_000);
+
+        try (final var reservation = quotaLedger.reserve(600)) {
+            // Another thread's reservation can't draw from this one, nor take more than is left
+            try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                final Future<?> overspending = executor.submit(() -> quotaLedger.reserve(600));
+                final var exception = Assertions.assertThrows(Exception.class, overspending::get);
+                Assertions.assertTrue(exception.getCause() instanceof QuotaBudgetExceededException);
+
+                executor.submit(() -> {
+                    try (final var otherReservation = quotaLedger.reserve(400)) {
+                        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_UPDATE);
+                    }
+                }).get();
+            }
+            Assertions.assertEquals(600, reservation.getUnits());
+            Assertions.assertEquals(350, quotaLedger.getRemainingUnits());
+        }
+        Assertions.assertEquals(950, quotaLedger.getRemainingUnits());
+    }
+
+    @Test
+    void shouldReserveOnlyWholeCallsThatAreLeft() {
+        final var quotaLedger = createQuotaLedger(1_000);
+        quotaLedger.record(ApiOperation.PLAYLIST_ITEMS_LIST);
+
+        try (final var reservation = quotaLedger.reserveUpTo(ApiOperation.PLAYLIST_ITEMS_UPDATE, 100)) {
+            Assertions.assertEquals(950, reservation.getUnits());
+        }
+        try (final var reservation = quotaLedger.reserveUpTo(ApiOperation.PLAYLIST_ITEMS_UPDATE, 3)) {
+            Assertions.assertEquals(150, reservation.getUnits());
+        }
+    }
+
+    private QuotaLedger createQuotaLedger(final long dailyLimit) {
+        return new QuotaLedger(dailyLimit, file, Duration.ofHours(1), objectMapper, new SimpleMeterRegistry(), clock);
+    }
+
+    /**
+     * A clock that moves only when told to; the ledger's copy in its own zone moves with it.
+     */
+    private static class MutableClock extends Clock {
+
+        private final AtomicReference<Instant> instant;
+        private final ZoneId zone;
+
+        MutableClock(final Instant instant) {
+            this(new AtomicReference<>(instant), ZoneOffset.UTC);
+        }
+
+        private MutableClock(final AtomicReference<Instant> instant, final ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        void advance(final Duration duration) {
+            instant.updateAndGet(current -> current.plus(duration));
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant.get();
+        }
+    }
+}
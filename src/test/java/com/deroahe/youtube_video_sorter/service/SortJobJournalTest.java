@@ -0,0 +1,112 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.model.PlaylistMove;
+import com.deroahe.youtube_video_sorter.support.model.ReorderPlan;
+import com.deroahe.youtube_video_sorter.support.model.SortJob;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.deroahe.youtube_video_sorter.support.model.SortedOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+class SortJobJournalTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("sort-job-journal-test");
+    }
+
+    @Test
+    void shouldReadBackPlanAndAppliedMoves() throws IOException {
+        final var sortJobJournal = new SortJobJournal(directory.toString(), objectMapper);
+        final var job = new SortJob("job1", "playlist", SortType.NATURAL, false);
+        final var plan = createPlan();
+        sortJobJournal.writeJob(job);
+        sortJobJournal.writePlan(job, plan);
+        sortJobJournal.writeMoveApplied(job, 0);
+        sortJobJournal.writeMoveApplied(job, 1);
+
+        final var actualJobs = new SortJobJournal(directory.toString(), objectMapper).readUnfinishedJobs();
+        Assertions.assertEquals(1, actualJobs.size());
+        final var actualJob = actualJobs.getFirst();
+        Assertions.assertEquals("job1", actualJob.getId());
+        Assertions.assertEquals("playlist", actualJob.getPlaylistId());
+        Assertions.assertEquals(SortType.NATURAL, actualJob.getSortType());
+        Assertions.assertFalse(actualJob.isAscending());
+        Assertions.assertEquals(plan.moves(), actualJob.getPlan().moves());
+        Assertions.assertEquals(plan.sortedOrder(), actualJob.getPlan().sortedOrder());
+        Assertions.assertEquals(2, actualJob.getMovesApplied());
+        Assertions.assertEquals(1, actualJob.getMovesRemaining());
+    }
+
+    @Test
+    void shouldReadBackLatestPlanOfJobPlannedAgain() throws IOException {
+        final var sortJobJournal = new SortJobJournal(directory.toString(), objectMapper);
+        final var job = new SortJob("job1", "playlist", SortType.NATURAL, true);
+        sortJobJournal.writeJob(job);
+        sortJobJournal.writePlan(job, createPlan());
+        sortJobJournal.writeMoveApplied(job, 0);
+        sortJobJournal.writeMoveApplied(job, 1);
+        // Resumed after a deferral, with only the last move left to make
+        final var newPlan = createPlan();
+        sortJobJournal.writePlan(job, new ReorderPlan(newPlan.playlistId(), newPlan.videoCount(),
+                newPlan.moves().subList(2, 3), newPlan.sortedOrder()));
+
+        final var actualJob = sortJobJournal.readUnfinishedJobs().getFirst();
+        Assertions.assertEquals(1, actualJob.getMovesPlanned());
+        Assertions.assertEquals(0, actualJob.getMovesApplied());
+        Assertions.assertEquals(100, actualJob.getQuotaSpent());
+    }
+
+    @Test
+    void shouldIgnoreTornLastLine() throws IOException {
+        final var sortJobJournal = new SortJobJournal(directory.toString(), objectMapper);
+        final var job = new SortJob("job1", "playlist", SortType.NATURAL, true);
+        sortJobJournal.writeJob(job);
+        sortJobJournal.writePlan(job, createPlan());
+        sortJobJournal.writeMoveApplied(job, 0);
+        // The process died in the middle of recording the second move
+        Files.writeString(directory.resolve("job1.journal"), "{\"type\":\"MOVE_APP", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        final var actualJob = sortJobJournal.readUnfinishedJobs().getFirst();
+        Assertions.assertEquals(3, actualJob.getMovesPlanned());
+        Assertions.assertEquals(1, actualJob.getMovesApplied());
+    }
+
+    @Test
+    void shouldReadJobWithoutPlanAndForgetDeletedJob() throws IOException {
+        final var sortJobJournal = new SortJobJournal(directory.toString(), objectMapper);
+        final var unplannedJob = new SortJob("job1", "playlist", SortType.NATURAL, true);
+        final var finishedJob = new SortJob("job2", "playlist", SortType.NATURAL, true);
+        sortJobJournal.writeJob(unplannedJob);
+        sortJobJournal.writeJob(finishedJob);
+        sortJobJournal.delete(finishedJob);
+
+        final var actualJobs = sortJobJournal.readUnfinishedJobs();
+        Assertions.assertEquals(1, actualJobs.size());
+        Assertions.assertEquals("job1", actualJobs.getFirst().getId());
+        Assertions.assertNull(actualJobs.getFirst().getPlan());
+    }
+
+    private static ReorderPlan createPlan() {
+        return new ReorderPlan("playlist", 4, List.of(
+                new PlaylistMove("item3", "video3", "Kill Tony #1", 2, 0),
+                new PlaylistMove("item4", "video4", "Kill Tony #2", 3, 1),
+                new PlaylistMove("item1", "video1", "Kill Tony #3", 2, 3)
+        ), new SortedOrder("playlist", SortType.NATURAL, false, List.of("item3", "item4", "item2", "item1"),
+                Instant.parse("2026-03-10T12:00:00Z")));
+    }
+}
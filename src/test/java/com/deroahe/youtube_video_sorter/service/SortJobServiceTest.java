@@ -0,0 +1,223 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.fake.FakeYouTubeApi;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.deroahe.youtube_video_sorter.support.model.SortJob;
+import com.deroahe.youtube_video_sorter.support.model.SortJobStatus;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+class SortJobServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<SortJobService> sortJobServices = new ArrayList<>();
+
+    private FakeYouTubeApi fakeYouTubeApi;
+    private Path directory;
+    private QuotaLedger quotaLedger;
+    private SortedOrderStore sortedOrderStore;
+    private YouTubePlaylistService youTubePlaylistService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fakeYouTubeApi = new FakeYouTubeApi();
+        directory = Files.createTempDirectory("sort-job-service-test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        sortJobServices.forEach(SortJobService::shutdown);
+        fakeYouTubeApi.close();
+    }
+
+    @Test
+    void shouldResumeJournaledJobWithRemainingMovesOnly() throws Exception {
+        createPlaylistService(Long.MAX_VALUE);
+        final var titles = createEpisodeTitles(100);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", titles.reversed());
+
+        // A job that planned and applied 30 moves before the process died
+        final var sortJobJournal = createSortJobJournal();
+        final var job = new SortJob(UUID.randomUUID().toString(), playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        sortJobJournal.writeJob(job);
+        final var plan = youTubePlaylistService.getReorderPlan(playlistId, job.getSortType(), job.isAscending());
+        sortJobJournal.writePlan(job, plan);
+        final var movesApplied = youTubePlaylistService.executeReorderPlan(plan, 0, () -> job.getMovesApplied() >= 30,
+                (moveIndex, move) -> {
+                    sortJobJournal.writeMoveApplied(job, moveIndex);
+                    job.setMovesApplied(moveIndex + 1);
+                });
+        Assertions.assertEquals(30, movesApplied);
+        fakeYouTubeApi.resetCounters();
+
+        final var sortJobService = createSortJobService(createSortJobJournal());
+        sortJobService.resumeUnfinishedJobs();
+
+        final var resumedJob = await(sortJobService, job.getId(), finishedJob -> finishedJob.getStatus().isFinished());
+        Assertions.assertEquals(SortJobStatus.COMPLETED, resumedJob.getStatus());
+        Assertions.assertEquals(titles, fakeYouTubeApi.getVideoTitles(playlistId));
+        Assertions.assertEquals(0, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_LIST));
+        Assertions.assertEquals(plan.getMoveCount() - 30, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE));
+        // The next sort of the playlist can be incremental
+        Assertions.assertEquals(plan.sortedOrder(), sortedOrderStore.get(playlistId));
+        Assertions.assertTrue(createSortJobJournal().readUnfinishedJobs().isEmpty());
+    }
+
+    @Test
+    void shouldStopCancelledJobBeforeItsNextMove() throws Exception {
+        createPlaylistService(Long.MAX_VALUE);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(100).reversed());
+        fakeYouTubeApi.setLatencyMillis(20);
+        final var sortJobService = createSortJobService(createSortJobJournal());
+
+        final var job = sortJobService.submit(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        await(sortJobService, job.getId(), runningJob -> runningJob.getMovesApplied() > 0);
+        sortJobService.cancel(job.getId());
+
+        await(sortJobService, job.getId(), finishedJob -> finishedJob.getStatus().isFinished());
+        Assertions.assertEquals(SortJobStatus.CANCELLED, job.getStatus());
+        Assertions.assertTrue(job.getMovesApplied() < job.getMovesPlanned());
+        Assertions.assertEquals(job.getMovesApplied(), fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE));
+        Assertions.assertTrue(createSortJobJournal().readUnfinishedJobs().isEmpty());
+    }
+
+    @Test
+    void shouldApplyMovesQuotaCoversAndDeferTheRest() throws Exception {
+        createPlaylistService(1_000);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(100).reversed());
+        final var sortJobService = createSortJobService(createSortJobJournal());
+
+        final var job = sortJobService.submit(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        await(sortJobService, job.getId(), deferredJob -> deferredJob.getStatus() == SortJobStatus.DEFERRED);
+        // 2 units went on fetching the 2 pages of the playlist, the other 998 cover 19 moves
+        Assertions.assertEquals(19, job.getMovesApplied());
+        Assertions.assertEquals(19, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE));
+        Assertions.assertEquals(19, createSortJobJournal().readUnfinishedJobs().getFirst().getMovesApplied());
+
+        sortJobService.cancel(job.getId());
+        Assertions.assertEquals(SortJobStatus.CANCELLED, job.getStatus());
+        Assertions.assertTrue(createSortJobJournal().readUnfinishedJobs().isEmpty());
+    }
+
+    @Test
+    void shouldPlanDeferredJobAgainWhenItResumes() throws Exception {
+        createPlaylistService(1_000, getClockResettingQuotaIn(Duration.ofSeconds(3)));
+        final var titles = createEpisodeTitles(31);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", titles.subList(1, 31).reversed());
+        final var sortJobService = createSortJobService(createSortJobJournal());
+
+        final var job = sortJobService.submit(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        await(sortJobService, job.getId(), deferredJob -> deferredJob.getStatus() == SortJobStatus.DEFERRED);
+        Assertions.assertEquals(19, job.getMovesApplied());
+
+        // An earlier episode uploaded while the job waits for the quota to reset moves every later position
+        fakeYouTubeApi.addVideos(playlistId, titles.subList(0, 1));
+
+        await(sortJobService, job.getId(), finishedJob -> finishedJob.getStatus().isFinished());
+        Assertions.assertEquals(SortJobStatus.COMPLETED, job.getStatus());
+        Assertions.assertEquals(titles, fakeYouTubeApi.getVideoTitles(playlistId));
+        Assertions.assertEquals(31, sortedOrderStore.get(playlistId).playlistItemIds().size());
+        Assertions.assertEquals(fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE) * 50, job.getQuotaSpent());
+    }
+
+    @Test
+    void shouldNotResumeJobCancelledWhileDeferred() throws Exception {
+        createPlaylistService(1_000, getClockResettingQuotaIn(Duration.ofSeconds(2)));
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(30).reversed());
+        final var sortJobService = createSortJobService(createSortJobJournal());
+
+        final var job = sortJobService.submit(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        await(sortJobService, job.getId(), deferredJob -> deferredJob.getStatus() == SortJobStatus.DEFERRED);
+        sortJobService.cancel(job.getId());
+        final var finishedAt = job.getFinishedAt();
+
+        // Past the reset the job would have resumed
+        Thread.sleep(3_000);
+        Assertions.assertEquals(SortJobStatus.CANCELLED, job.getStatus());
+        Assertions.assertEquals(finishedAt, job.getFinishedAt());
+        Assertions.assertEquals(19, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE));
+        Assertions.assertTrue(createSortJobJournal().readUnfinishedJobs().isEmpty());
+    }
+
+    private void createPlaylistService(final long dailyLimit) throws IOException {
+        createPlaylistService(dailyLimit, Clock.systemUTC());
+    }
+
+    private void createPlaylistService(final long dailyLimit, final Clock clock) throws IOException {
+        final var meterRegistry = new SimpleMeterRegistry();
+        quotaLedger = new QuotaLedger(dailyLimit, directory.resolve("quota.json").toString(), Duration.ofSeconds(1),
+                objectMapper, meterRegistry, clock);
+        final var youTubeRequestExecutor = new YouTubeRequestExecutor(quotaLedger, meterRegistry, 1_000, 1, 1_000, 6,
+                Duration.ofMillis(1), Duration.ofMillis(10));
+        final var youTubeService = new YouTubeService(fakeYouTubeApi.getRootUrl(), false, "jdk", Duration.ofSeconds(5),
+                Duration.ofSeconds(30));
+        sortedOrderStore = new SortedOrderStore(directory.resolve("sorted").toString(), objectMapper);
+        final var playlistSnapshotCache = new PlaylistSnapshotCache(directory.resolve("snapshots").toString(),
+                Duration.ZERO, Duration.ZERO, 100);
+        final var videoMetadataService = new VideoMetadataService(youTubeService, youTubeRequestExecutor,
+                new VideoMetadataCache(Duration.ofHours(1), 1_000), 4);
+        youTubePlaylistService = new YouTubePlaylistService(youTubeService, youTubeRequestExecutor, playlistSnapshotCache,
+                quotaLedger, sortedOrderStore, videoMetadataService, new PlaylistSearchIndex(), meterRegistry, true,
+                Locale.ENGLISH);
+    }
+
+    /**
+     * @return a clock on which the quota resets the given time from now, Pacific midnight being when it resets
+     */
+    private static Clock getClockResettingQuotaIn(final Duration resetIn) {
+        final var pacific = ZoneId.of("America/Los_Angeles");
+        final var nextMidnight = LocalDate.now(pacific).plusDays(1).atStartOfDay(pacific).toInstant();
+        return Clock.offset(Clock.systemUTC(), Duration.between(Instant.now(), nextMidnight).minus(resetIn));
+    }
+
+    private SortJobJournal createSortJobJournal() {
+        return new SortJobJournal(directory.resolve("jobs").toString(), objectMapper);
+    }
+
+    private SortJobService createSortJobService(final SortJobJournal sortJobJournal) {
+        final var sortJobService = new SortJobService(youTubePlaylistService, sortJobJournal, quotaLedger, 1, 10, true,
+                Duration.ofHours(1));
+        sortJobServices.add(sortJobService);
+        return sortJobService;
+    }
+
+    private static SortJob await(final SortJobService sortJobService, final String jobId,
+                                 final Predicate<SortJob> condition) throws InterruptedException {
+        final var deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (System.nanoTime() < deadline) {
+            final var job = sortJobService.getJob(jobId);
+            if (job != null && condition.test(job)) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + jobId + " didn't get there in time");
+    }
+
+    private static List<String> createEpisodeTitles(final int count) {
+        final List<String> titles = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            titles.add("KILL TONY #" + i + " - GUEST " + i);
+        }
+        return titles;
+    }
+}
@@ -0,0 +1,246 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.fake.FakeYouTubeApi;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.deroahe.youtube_video_sorter.support.model.SearchHit;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+class YouTubePlaylistServiceTest {
+
+    private FakeYouTubeApi fakeYouTubeApi;
+    private Path directory;
+    private SimpleMeterRegistry meterRegistry;
+    private YouTubePlaylistService youTubePlaylistService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        fakeYouTubeApi = new FakeYouTubeApi();
+        directory = Files.createTempDirectory("youtube-playlist-service-test");
+        createPlaylistService(Duration.ZERO);
+    }
+
+    private void createPlaylistService(final Duration snapshotTtl) {
+        final var objectMapper = new ObjectMapper().findAndRegisterModules();
+        meterRegistry = new SimpleMeterRegistry();
+        final var quotaLedger = new QuotaLedger(Long.MAX_VALUE, directory.resolve("quota.json").toString(),
+                Duration.ofSeconds(1), objectMapper, meterRegistry);
+        final var youTubeRequestExecutor = new YouTubeRequestExecutor(quotaLedger, meterRegistry, 1_000, 1, 1_000, 6,
+                Duration.ofMillis(1), Duration.ofMillis(10));
+        final var playlistSnapshotCache = new PlaylistSnapshotCache(directory.resolve("snapshots").toString(),
+                snapshotTtl, snapshotTtl, 100);
+
+        final var youTubeService = new YouTubeService(fakeYouTubeApi.getRootUrl(), false, "jdk", Duration.ofSeconds(5),
+                Duration.ofSeconds(30));
+        final var sortedOrderStore = new SortedOrderStore(directory.resolve("sorted").toString(), objectMapper);
+        final var videoMetadataService = new VideoMetadataService(youTubeService, youTubeRequestExecutor,
+                new VideoMetadataCache(Duration.ofHours(1), 1_000), 4);
+
+        youTubePlaylistService = new YouTubePlaylistService(youTubeService, youTubeRequestExecutor, playlistSnapshotCache,
+                quotaLedger, sortedOrderStore, videoMetadataService, new PlaylistSearchIndex(), meterRegistry, true,
+                Locale.ENGLISH);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fakeYouTubeApi.close();
+    }
+
+    @Test
+    void shouldFetchAllPagesOfPlaylist() throws Exception {
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(120));
+
+        final var actualVideos = youTubePlaylistService.getVideosInPlaylist(playlistId);
+        Assertions.assertEquals(120, actualVideos.size());
+        Assertions.assertEquals(3, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_LIST));
+    }
+
+    @Test
+    void shouldSortPlaylistWithPlannedMovesOnly() throws Exception {
+        final var expectedTitles = createEpisodeTitles(200);
+        final var shuffledTitles = new ArrayList<>(expectedTitles);
+        Collections.shuffle(shuffledTitles, new Random(7));
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", shuffledTitles);
+
+        final var actualPlan = youTubePlaylistService.updatePlaylistOrder(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(expectedTitles, fakeYouTubeApi.getVideoTitles(playlistId));
+        Assertions.assertEquals(actualPlan.getMoveCount(), fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE));
+    }
+
+    @Test
+    void shouldSortPlaylistDespiteTransientErrors() throws Exception {
+        final var expectedTitles = createEpisodeTitles(100);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", expectedTitles.reversed());
+        fakeYouTubeApi.setErrorRates(0.05, 0.05);
+
+        youTubePlaylistService.updatePlaylistOrder(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(expectedTitles, fakeYouTubeApi.getVideoTitles(playlistId));
+    }
+
+    @Test
+    void shouldPlanNoMovesForSortedPlaylist() throws Exception {
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(60));
+
+        final var actualPlan = youTubePlaylistService.getReorderPlan(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(0, actualPlan.getMoveCount());
+    }
+
+    @Test
+    void shouldCountPlannedMovesOfExecutedPlansOnly() throws Exception {
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(60).reversed());
+
+        final var previewedPlan = youTubePlaylistService.getReorderPlan(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(0, countMoves("planned"));
+
+        youTubePlaylistService.updatePlaylistOrder(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(previewedPlan.getMoveCount(), countMoves("planned"));
+        Assertions.assertEquals(previewedPlan.getMoveCount(), countMoves("executed"));
+    }
+
+    @Test
+    void shouldTimePhasesPlannedOnVirtualThreadInWallTimeOnly() throws Exception {
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(60).reversed());
+
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> youTubePlaylistService.getReorderPlan(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL,
+                    true)).get();
+        }
+        for (final var phase : List.of("sort", "plan")) {
+            Assertions.assertEquals(1, meterRegistry.get("youtube.sort.phase").tag("phase", phase).timer().count());
+            Assertions.assertTrue(meterRegistry.find("youtube.sort.phase.cpu").tag("phase", phase).timers().isEmpty());
+        }
+
+        youTubePlaylistService.getReorderPlan(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(1, meterRegistry.get("youtube.sort.phase.cpu").tag("phase", "plan").timer().count());
+    }
+
+    @Test
+    void shouldRevalidateSnapshotWithinTtlBeforeSorting() throws Exception {
+        createPlaylistService(Duration.ofHours(1));
+        final var titles = createEpisodeTitles(120);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", titles.subList(20, 120).reversed());
+        youTubePlaylistService.updatePlaylistOrder(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+
+        youTubePlaylistService.getSortedVideos(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        fakeYouTubeApi.resetCounters();
+        // Reads within the TTL are served from the snapshot
+        youTubePlaylistService.getSortedVideos(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(0, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_LIST));
+
+        // Earlier episodes uploaded since belong at the start, and the snapshot doesn't know about them
+        fakeYouTubeApi.addVideos(playlistId, titles.subList(0, 20));
+        youTubePlaylistService.updatePlaylistOrder(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(titles, fakeYouTubeApi.getVideoTitles(playlistId));
+        Assertions.assertEquals(3, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_LIST));
+    }
+
+    @Test
+    void shouldPlaceOnlyNewVideosAfterPlaylistWasSorted() throws Exception {
+        final var titles = createEpisodeTitles(150);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", titles.reversed());
+        youTubePlaylistService.updatePlaylistOrder(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+
+        fakeYouTubeApi.addVideos(playlistId, List.of("KILL TONY #75 - GUEST 75 (ENCORE)", "KILL TONY #3 - GUEST 3 (ENCORE)",
+                "KILL TONY #200 - GUEST 200"));
+        fakeYouTubeApi.resetCounters();
+
+        final var actualPlan = youTubePlaylistService.updatePlaylistOrder(playlistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        Assertions.assertEquals(2, actualPlan.getMoveCount());
+        Assertions.assertEquals(2, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE));
+
+        final var actualTitles = fakeYouTubeApi.getVideoTitles(playlistId);
+        Assertions.assertEquals("KILL TONY #3 - GUEST 3 (ENCORE)", actualTitles.get(3));
+        Assertions.assertEquals("KILL TONY #75 - GUEST 75 (ENCORE)", actualTitles.get(76));
+        Assertions.assertEquals("KILL TONY #200 - GUEST 200", actualTitles.getLast());
+    }
+
+    @Test
+    void shouldSortPlaylistByViewCountWithUnavailableVideosLast() throws Exception {
+        final var titles = createEpisodeTitles(120);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", titles);
+        final var videoIds = fakeYouTubeApi.getVideoIds(playlistId);
+        // Every video but the first has views; the most viewed is the last episode
+        for (int i = 1; i < videoIds.size(); i++) {
+            fakeYouTubeApi.setVideoMetadata(videoIds.get(i), Instant.EPOCH.plusSeconds(i), Duration.ofMinutes(i), i * 1_000L);
+        }
+
+        youTubePlaylistService.updatePlaylistOrder(playlistId, SortType.VIEW_COUNT, false);
+        final var actualTitles = fakeYouTubeApi.getVideoTitles(playlistId);
+        Assertions.assertEquals(titles.getLast(), actualTitles.getFirst());
+        Assertions.assertEquals(titles.get(1), actualTitles.get(118));
+        Assertions.assertEquals(titles.getFirst(), actualTitles.getLast());
+        Assertions.assertEquals(3, fakeYouTubeApi.getCalls(ApiOperation.VIDEOS_LIST));
+
+        fakeYouTubeApi.resetCounters();
+        final var actualPlan = youTubePlaylistService.getReorderPlan(playlistId, SortType.VIEW_COUNT, false);
+        Assertions.assertEquals(0, actualPlan.getMoveCount());
+        Assertions.assertEquals(0, fakeYouTubeApi.getCalls(ApiOperation.VIDEOS_LIST));
+    }
+
+    @Test
+    void shouldCleanUpPlaylistBeforeSortingIt() throws Exception {
+        final var titles = createEpisodeTitles(80);
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", titles.reversed());
+        final var videoIds = fakeYouTubeApi.getVideoIds(playlistId);
+        fakeYouTubeApi.addVideo(playlistId, videoIds.get(10), titles.reversed().get(10));
+        fakeYouTubeApi.addUnavailableVideo(playlistId, "deletedVideo", "Deleted video");
+        fakeYouTubeApi.addUnavailableVideo(playlistId, "privateVideo", "Private video");
+
+        final var actualResult = youTubePlaylistService.updatePlaylistOrder(playlistId,
+                SortType.HASHTAG_NUMBER_NUMERICAL, true, true);
+        Assertions.assertEquals(titles, fakeYouTubeApi.getVideoTitles(playlistId));
+        Assertions.assertEquals(3, actualResult.removals());
+        Assertions.assertEquals(3, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_DELETE));
+        Assertions.assertEquals(actualResult.moves(), fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_UPDATE));
+        Assertions.assertEquals(50L * (actualResult.removals() + actualResult.moves()), actualResult.quotaCost());
+    }
+
+    @Test
+    void shouldFindVideosAcrossFetchedPlaylistsWithoutApiCalls() throws Exception {
+        final var firstPlaylistId = fakeYouTubeApi.addPlaylist("Kill Tony", createEpisodeTitles(60).reversed());
+        final var secondPlaylistId = fakeYouTubeApi.addPlaylist("Kill Tony favourites", List.of("KILL TONY #42 - GUEST 42"));
+        youTubePlaylistService.getAllPlaylists();
+        youTubePlaylistService.updatePlaylistOrder(firstPlaylistId, SortType.HASHTAG_NUMBER_NUMERICAL, true);
+        youTubePlaylistService.getVideosInPlaylist(secondPlaylistId);
+        fakeYouTubeApi.resetCounters();
+
+        final var actualPage = youTubePlaylistService.search("guest 42", false, 0, 10);
+        Assertions.assertEquals(2, actualPage.total());
+        Assertions.assertEquals(0, fakeYouTubeApi.getTotalCalls());
+
+        final var actualPositions = actualPage.hits().stream()
+                .filter(hit -> hit.playlistId().equals(firstPlaylistId))
+                .map(SearchHit::position)
+                .toList();
+        Assertions.assertEquals(List.of(41L), actualPositions);
+    }
+
+    private long countMoves(final String state) {
+        return (long) meterRegistry.get("youtube.sort.moves").tag("state", state).counter().count();
+    }
+
+    private static List<String> createEpisodeTitles(final int count) {
+        final List<String> titles = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            titles.add("KILL TONY #" + i + " - GUEST " + i);
+        }
+        return titles;
+    }
+}
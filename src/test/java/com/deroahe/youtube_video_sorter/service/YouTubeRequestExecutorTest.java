@@ -0,0 +1,112 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.fake.FakeYouTubeApi;
+import com.deroahe.youtube_video_sorter.support.model.ApiOperation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.youtube.model.PlaylistItem;
+import com.google.api.services.youtube.YouTube;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+
+class YouTubeRequestExecutorTest {
+
+    private FakeYouTubeApi fakeYouTubeApi;
+    private QuotaLedger quotaLedger;
+    private YouTubeRequestExecutor youTubeRequestExecutor;
+    private YouTube youtubeService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fakeYouTubeApi = new FakeYouTubeApi();
+        fakeYouTubeApi.addPlaylist("Kill Tony", List.of("KILL TONY #1"));
+
+        final var directory = Files.createTempDirectory("youtube-request-executor-test");
+        final var meterRegistry = new SimpleMeterRegistry();
+        quotaLedger = new QuotaLedger(10_000, directory.resolve("quota.json").toString(), Duration.ofSeconds(1),
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        youTubeRequestExecutor = new YouTubeRequestExecutor(quotaLedger, meterRegistry, 1_000, 1, 1_000, 4,
+                Duration.ofMillis(1), Duration.ofMillis(10));
+        youtubeService = new YouTubeService(fakeYouTubeApi.getRootUrl(), false, "jdk", Duration.ofSeconds(5),
+                Duration.ofSeconds(30)).getYouTubeService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fakeYouTubeApi.close();
+    }
+
+    @Test
+    void shouldRetryServerErrorsAndThrottling() throws IOException {
+        fakeYouTubeApi.failNextRequests(1, 503, "backendError");
+        fakeYouTubeApi.failNextRequests(1, 403, "rateLimitExceeded");
+
+        final var response = youTubeRequestExecutor.execute(ApiOperation.PLAYLISTS_LIST, listPlaylists());
+        Assertions.assertEquals(1, response.getItems().size());
+        Assertions.assertEquals(3, fakeYouTubeApi.getCalls(ApiOperation.PLAYLISTS_LIST));
+        // Failed attempts are charged too
+        Assertions.assertEquals(3, quotaLedger.getUsage().unitsUsed());
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() throws IOException {
+        fakeYouTubeApi.failNextRequests(10, 503, "backendError");
+
+        final var exception = Assertions.assertThrows(HttpResponseException.class,
+                () -> youTubeRequestExecutor.execute(ApiOperation.PLAYLISTS_LIST, listPlaylists()));
+        Assertions.assertEquals(503, exception.getStatusCode());
+        Assertions.assertEquals(4, fakeYouTubeApi.getCalls(ApiOperation.PLAYLISTS_LIST));
+    }
+
+    @Test
+    void shouldNotRetryQuotaExhaustion() throws IOException {
+        fakeYouTubeApi.failNextRequests(1, 403, "quotaExceeded");
+
+        Assertions.assertThrows(HttpResponseException.class,
+                () -> youTubeRequestExecutor.execute(ApiOperation.PLAYLISTS_LIST, listPlaylists()));
+        Assertions.assertEquals(1, fakeYouTubeApi.getCalls(ApiOperation.PLAYLISTS_LIST));
+        Assertions.assertEquals(0, quotaLedger.getRemainingUnits());
+    }
+
+    @Test
+    void shouldNotRetryClientErrors() throws IOException {
+        fakeYouTubeApi.failNextRequests(1, 404, "playlistNotFound");
+
+        final var exception = Assertions.assertThrows(HttpResponseException.class,
+                () -> youTubeRequestExecutor.execute(ApiOperation.PLAYLISTS_LIST, listPlaylists()));
+        Assertions.assertEquals(404, exception.getStatusCode());
+        Assertions.assertEquals(1, fakeYouTubeApi.getCalls(ApiOperation.PLAYLISTS_LIST));
+        Assertions.assertEquals(9_999, quotaLedger.getRemainingUnits());
+    }
+
+    @Test
+    void shouldTreatRetriedDeleteOfDeletedItemAsDone() throws IOException {
+        final var playlistId = fakeYouTubeApi.addPlaylist("Kill Tony", List.of("KILL TONY #1", "KILL TONY #2"));
+        final var playlistItemIds = youtubeService.playlistItems().list("snippet").setPlaylistId(playlistId).execute()
+                .getItems().stream().map(PlaylistItem::getId).toList();
+        fakeYouTubeApi.loseNextDeleteResponses(1);
+
+        youTubeRequestExecutor.execute(ApiOperation.PLAYLIST_ITEMS_DELETE,
+                youtubeService.playlistItems().delete(playlistItemIds.getFirst()));
+        Assertions.assertEquals(List.of("KILL TONY #2"), fakeYouTubeApi.getVideoTitles(playlistId));
+        Assertions.assertEquals(2, fakeYouTubeApi.getCalls(ApiOperation.PLAYLIST_ITEMS_DELETE));
+
+        // Only a retry can have been preceded by a successful attempt
+        final var exception = Assertions.assertThrows(HttpResponseException.class,
+                () -> youTubeRequestExecutor.execute(ApiOperation.PLAYLIST_ITEMS_DELETE,
+                        youtubeService.playlistItems().delete(playlistItemIds.getFirst())));
+        Assertions.assertEquals(404, exception.getStatusCode());
+    }
+
+    private YouTube.Playlists.List listPlaylists() throws IOException {
+        return youtubeService.playlists().list("snippet").setMine(true);
+    }
+}
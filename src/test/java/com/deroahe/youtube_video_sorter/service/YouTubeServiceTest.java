@@ -0,0 +1,156 @@
+package com.deroahe.youtube_video_sorter.service;
+
+import com.deroahe.youtube_video_sorter.support.CredentialSource;
+import com.google.api.client.auth.oauth2.BearerToken;
+import com.google.api.client.auth.oauth2.ClientParametersAuthentication;
+import com.google.api.client.auth.oauth2.Credential;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.json.Json;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class YouTubeServiceTest {
+
+    private static final String REFRESHED_TOKEN_RESPONSE = "{\"access_token\": \"refreshed\", \"expires_in\": 3600}";
+
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+
+    @Test
+    void shouldNotRefreshTokenOutsideRefreshAheadWindow() throws Exception {
+        final var credentialSource = new StubCredentialSource(
+                createCredential(Duration.ofHours(1), "refreshToken", 200, REFRESHED_TOKEN_RESPONSE));
+        final var youTubeService = createYouTubeService(credentialSource);
+
+        youTubeService.getYouTubeService();
+        youTubeService.getYouTubeService();
+        Assertions.assertEquals(0, tokenRequests.get());
+        Assertions.assertEquals(1, credentialSource.authorizations);
+    }
+
+    @Test
+    void shouldRefreshTokenWithinRefreshAheadWindow() throws Exception {
+        final var credential = createCredential(Duration.ofMinutes(4), "refreshToken", 200, REFRESHED_TOKEN_RESPONSE);
+        final var credentialSource = new StubCredentialSource(credential);
+        final var youTubeService = createYouTubeService(credentialSource);
+
+        youTubeService.getYouTubeService();
+        Assertions.assertEquals(1, tokenRequests.get());
+        Assertions.assertEquals("refreshed", credential.getAccessToken());
+
+        // The refreshed token expires in an hour, so the next call leaves it alone
+        youTubeService.getYouTubeService();
+        Assertions.assertEquals(1, tokenRequests.get());
+        Assertions.assertEquals(1, credentialSource.authorizations);
+        Assertions.assertEquals(0, credentialSource.forgets);
+    }
+
+    @Test
+    void shouldAuthorizeAgainWhenRefreshTokenIsRejected() throws Exception {
+        final var credentialSource = new StubCredentialSource(
+                createCredential(Duration.ofMinutes(1), "revokedRefreshToken", 400, "{\"error\": \"invalid_grant\"}"),
+                createCredential(Duration.ofHours(1), "refreshToken", 200, REFRESHED_TOKEN_RESPONSE));
+        final var youTubeService = createYouTubeService(credentialSource);
+
+        youTubeService.getYouTubeService();
+        Assertions.assertEquals(1, tokenRequests.get());
+        Assertions.assertEquals(1, credentialSource.forgets);
+        Assertions.assertEquals(2, credentialSource.authorizations);
+
+        // The new credential is the one in use, and it isn't expiring
+        youTubeService.getYouTubeService();
+        Assertions.assertEquals(1, tokenRequests.get());
+        Assertions.assertEquals(2, credentialSource.authorizations);
+    }
+
+    @Test
+    void shouldAuthorizeAgainWithoutRefreshToken() throws Exception {
+        final var credentialSource = new StubCredentialSource(
+                createCredential(Duration.ofMinutes(1), null, 200, REFRESHED_TOKEN_RESPONSE),
+                createCredential(Duration.ofHours(1), "refreshToken", 200, REFRESHED_TOKEN_RESPONSE));
+        final var youTubeService = createYouTubeService(credentialSource);
+
+        youTubeService.getYouTubeService();
+        Assertions.assertEquals(0, tokenRequests.get());
+        Assertions.assertEquals(1, credentialSource.forgets);
+        Assertions.assertEquals(2, credentialSource.authorizations);
+    }
+
+    @Test
+    void shouldRetryRefreshOnNextCallWhenTokenServerFails() throws Exception {
+        final var credentialSource = new StubCredentialSource(
+                createCredential(Duration.ofMinutes(1), "refreshToken", 503, "{\"error\": \"backend_error\"}"));
+        final var youTubeService = createYouTubeService(credentialSource);
+
+        youTubeService.getYouTubeService();
+        youTubeService.getYouTubeService();
+        Assertions.assertEquals(2, tokenRequests.get());
+        Assertions.assertEquals(0, credentialSource.forgets);
+        Assertions.assertEquals(1, credentialSource.authorizations);
+    }
+
+    private static YouTubeService createYouTubeService(final CredentialSource credentialSource) {
+        return new YouTubeService("", true, "jdk", Duration.ofSeconds(5), Duration.ofSeconds(30), credentialSource);
+    }
+
+    /**
+     * A credential whose token server answers every refresh with the given status and body.
+     */
+    private Credential createCredential(final Duration expiresIn, final String refreshToken, final int tokenStatus,
+                                        final String tokenResponse) {
+        final var tokenServer = new MockHttpTransport() {
+            @Override
+            public LowLevelHttpRequest buildRequest(final String method, final String url) {
+                tokenRequests.incrementAndGet();
+                return new MockLowLevelHttpRequest(url).setResponse(new MockLowLevelHttpResponse()
+                        .setStatusCode(tokenStatus)
+                        .setContentType(Json.MEDIA_TYPE)
+                        .setContent(tokenResponse));
+            }
+        };
+        return new Credential.Builder(BearerToken.authorizationHeaderAccessMethod())
+                .setTransport(tokenServer)
+                .setJsonFactory(JacksonFactory.getDefaultInstance())
+                .setTokenServerEncodedUrl("https://oauth2.example.com/token")
+                .setClientAuthentication(new ClientParametersAuthentication("clientId", "clientSecret"))
+                .build()
+                .setAccessToken("accessToken")
+                .setRefreshToken(refreshToken)
+                .setExpirationTimeMilliseconds(System.currentTimeMillis() + expiresIn.toMillis());
+    }
+
+    /**
+     * Hands out the given credentials in turn, one per authorization, instead of going through the consent flow.
+     */
+    private static class StubCredentialSource implements CredentialSource {
+
+        private final Queue<Credential> credentials;
+        private int authorizations;
+        private int forgets;
+
+        StubCredentialSource(final Credential... credentials) {
+            this.credentials = new ArrayDeque<>(List.of(credentials));
+        }
+
+        @Override
+        public Credential authorize(final HttpTransport httpTransport) {
+            authorizations++;
+            return credentials.remove();
+        }
+
+        @Override
+        public void forget(final HttpTransport httpTransport) {
+            forgets++;
+        }
+    }
+}
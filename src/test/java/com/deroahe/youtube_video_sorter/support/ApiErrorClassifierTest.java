@@ -0,0 +1,51 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.ApiErrorType;
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonResponseException;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+
+class ApiErrorClassifierTest {
+
+    @Test
+    void shouldTellQuotaExhaustionFromThrottlingByReason() {
+        Assertions.assertEquals(ApiErrorType.QUOTA_EXCEEDED, ApiErrorClassifier.classify(createError(403, "quotaExceeded")));
+        Assertions.assertEquals(ApiErrorType.QUOTA_EXCEEDED, ApiErrorClassifier.classify(createError(403, "dailyLimitExceeded")));
+        Assertions.assertEquals(ApiErrorType.RATE_LIMITED, ApiErrorClassifier.classify(createError(403, "rateLimitExceeded")));
+        Assertions.assertEquals(ApiErrorType.RATE_LIMITED, ApiErrorClassifier.classify(createError(403, "userRateLimitExceeded")));
+    }
+
+    @Test
+    void shouldClassifyOtherErrorsByStatus() {
+        Assertions.assertEquals(ApiErrorType.FATAL, ApiErrorClassifier.classify(createError(403, "forbidden")));
+        Assertions.assertEquals(ApiErrorType.FATAL, ApiErrorClassifier.classify(createError(404, "playlistNotFound")));
+        Assertions.assertEquals(ApiErrorType.RATE_LIMITED, ApiErrorClassifier.classify(createError(429, "tooManyRequests")));
+        Assertions.assertEquals(ApiErrorType.TRANSIENT, ApiErrorClassifier.classify(createError(503, "backendError")));
+        Assertions.assertEquals(ApiErrorType.FATAL,
+                ApiErrorClassifier.classify(new HttpResponseException.Builder(400, null, new HttpHeaders()).build()));
+    }
+
+    @Test
+    void shouldRetryNetworkFailuresButNotInterruptions() {
+        Assertions.assertEquals(ApiErrorType.TRANSIENT, ApiErrorClassifier.classify(new SocketTimeoutException()));
+        Assertions.assertEquals(ApiErrorType.TRANSIENT, ApiErrorClassifier.classify(new IOException("Connection reset")));
+        Assertions.assertEquals(ApiErrorType.FATAL, ApiErrorClassifier.classify(new InterruptedIOException()));
+    }
+
+    private static GoogleJsonResponseException createError(final int code, final String reason) {
+        final var errorInfo = new GoogleJsonError.ErrorInfo();
+        errorInfo.setReason(reason);
+        final var details = new GoogleJsonError();
+        details.setCode(code);
+        details.setErrors(List.of(errorInfo));
+        return new GoogleJsonResponseException(new HttpResponseException.Builder(code, null, new HttpHeaders()), details);
+    }
+}
@@ -0,0 +1,72 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.CompactPlaylist;
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import com.google.api.services.youtube.model.PlaylistItem;
+import com.google.api.services.youtube.model.PlaylistItemSnippet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+class IncrementalSortTest {
+
+    private static final List<String> SORTED_IDS = List.of("itemB", "itemD", "itemF", "itemH");
+
+    @Test
+    void shouldInsertNewVideosBetweenSortedOnes() {
+        final var playlist = createPlaylist("B", "D", "F", "H", "G", "A", "E");
+
+        final var actualTitles = sort(playlist, SORTED_IDS);
+        Assertions.assertEquals(List.of("A", "B", "D", "E", "F", "G", "H"), actualTitles);
+    }
+
+    @Test
+    void shouldIgnoreRemovedVideos() {
+        final var playlist = createPlaylist("B", "H", "C");
+
+        final var actualTitles = sort(playlist, SORTED_IDS);
+        Assertions.assertEquals(List.of("B", "C", "H"), actualTitles);
+    }
+
+    @Test
+    void shouldPutNewVideoAfterSortedVideosWithEqualTitle() {
+        final var playlist = createPlaylist("B", "D", "F", "H", "b");
+
+        final var actualTitles = sort(playlist, SORTED_IDS);
+        Assertions.assertEquals(List.of("B", "b", "D", "F", "H"), actualTitles);
+    }
+
+    @Test
+    void shouldGiveUpWhenSortedVideosWereMoved() {
+        final var playlist = createPlaylist("D", "B", "F", "H", "A");
+
+        final var actualIndexes = IncrementalSort.getSortedIndexes(playlist, SORTED_IDS,
+                SortMethods.getTitleComparator(SortType.WHOLE_TITLE_ALPHABETICAL, true, Locale.ENGLISH));
+        Assertions.assertNull(actualIndexes);
+    }
+
+    private static List<String> sort(final CompactPlaylist playlist, final List<String> sortedPlaylistItemIds) {
+        final var sortedIndexes = IncrementalSort.getSortedIndexes(playlist, sortedPlaylistItemIds,
+                SortMethods.getTitleComparator(SortType.WHOLE_TITLE_ALPHABETICAL, true, Locale.ENGLISH));
+        return Arrays.stream(sortedIndexes).mapToObj(playlist::getTitle).toList();
+    }
+
+    private static CompactPlaylist createPlaylist(final String... videoTitles) {
+        final List<PlaylistItem> videos = new ArrayList<>();
+        for (int i = 0; i < videoTitles.length; i++) {
+            final var snippet = new PlaylistItemSnippet();
+            snippet.setTitle(videoTitles[i]);
+            snippet.setPosition((long) i);
+
+            final var playlistItem = new PlaylistItem();
+            playlistItem.setId("item" + videoTitles[i]);
+            playlistItem.setSnippet(snippet);
+            videos.add(playlistItem);
+        }
+        return CompactPlaylist.of("playlist", videos);
+    }
+}
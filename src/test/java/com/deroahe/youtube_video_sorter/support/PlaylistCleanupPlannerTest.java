@@ -0,0 +1,78 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.CompactPlaylist;
+import com.deroahe.youtube_video_sorter.support.model.PlaylistRemoval;
+import com.deroahe.youtube_video_sorter.support.model.RemovalReason;
+import com.google.api.services.youtube.model.PlaylistItem;
+import com.google.api.services.youtube.model.PlaylistItemSnippet;
+import com.google.api.services.youtube.model.ResourceId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class PlaylistCleanupPlannerTest {
+
+    @Test
+    void shouldRemoveLaterDuplicatesAndUnavailableVideos() {
+        final var playlist = CompactPlaylist.of("playlist", List.of(
+                createPlaylistItem("item1", "video1", "Kill Tony #1", 0, true),
+                createPlaylistItem("item2", "video2", "Deleted video", 1, false),
+                createPlaylistItem("item3", "video1", "Kill Tony #1", 2, true),
+                createPlaylistItem("item4", "video4", "Private video", 3, false),
+                createPlaylistItem("item5", "video5", "Kill Tony #5", 4, true),
+                createPlaylistItem("item6", "video2", "Deleted video", 5, false)
+        ));
+        final var expectedRemovals = List.of(
+                new PlaylistRemoval("item2", "video2", "Deleted video", 1, RemovalReason.UNAVAILABLE),
+                new PlaylistRemoval("item3", "video1", "Kill Tony #1", 2, RemovalReason.DUPLICATE),
+                new PlaylistRemoval("item4", "video4", "Private video", 3, RemovalReason.UNAVAILABLE),
+                new PlaylistRemoval("item6", "video2", "Deleted video", 5, RemovalReason.UNAVAILABLE)
+        );
+
+        final var actualPlan = PlaylistCleanupPlanner.plan(playlist);
+        Assertions.assertEquals(expectedRemovals, actualPlan.removals());
+        Assertions.assertEquals(6, actualPlan.videoCount());
+        Assertions.assertEquals(200, actualPlan.getQuotaCost());
+    }
+
+    @Test
+    void shouldPlanNoRemovalsForCleanPlaylist() {
+        final var playlist = CompactPlaylist.of("playlist", List.of(
+                createPlaylistItem("item1", "video1", "Kill Tony #1", 0, true),
+                createPlaylistItem("item2", "video2", "Kill Tony #1", 1, true)
+        ));
+
+        Assertions.assertEquals(0, PlaylistCleanupPlanner.plan(playlist).getRemovalCount());
+    }
+
+    @Test
+    void shouldKeepAvailableVideosWithPlaceholderTitles() {
+        final var playlist = CompactPlaylist.of("playlist", List.of(
+                createPlaylistItem("item1", "video1", "Private video", 0, true),
+                createPlaylistItem("item2", "video2", "Kill Tony #2", 1, false)
+        ));
+
+        Assertions.assertEquals(0, PlaylistCleanupPlanner.plan(playlist).getRemovalCount());
+    }
+
+    /**
+     * @param available whether the item has the owner channel of its video, which placeholders don't
+     */
+    private static PlaylistItem createPlaylistItem(final String playlistItemId, final String videoId,
+                                                   final String videoTitle, final long position, final boolean available) {
+        final var snippet = new PlaylistItemSnippet();
+        snippet.setTitle(videoTitle);
+        snippet.setPosition(position);
+        snippet.setResourceId(new ResourceId().setVideoId(videoId));
+        if (available) {
+            snippet.set("videoOwnerChannelId", "channel");
+        }
+
+        final var playlistItem = new PlaylistItem();
+        playlistItem.setId(playlistItemId);
+        playlistItem.setSnippet(snippet);
+
+        return playlistItem;
+    }
+}
@@ -0,0 +1,53 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+    @Test
+    void shouldHalveRateWhenThrottled() {
+        final var rateLimiter = new RateLimiter(10, 1, 10);
+
+        rateLimiter.onThrottled();
+        Assertions.assertEquals(5, rateLimiter.getPermitsPerSecond(), 0.001);
+
+        rateLimiter.onThrottled();
+        Assertions.assertEquals(2.5, rateLimiter.getPermitsPerSecond(), 0.001);
+    }
+
+    @Test
+    void shouldNotGoBelowMinimumRate() {
+        final var rateLimiter = new RateLimiter(10, 1, 10);
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.onThrottled();
+        }
+        Assertions.assertEquals(1, rateLimiter.getPermitsPerSecond(), 0.001);
+    }
+
+    @Test
+    void shouldRecoverRateUpToMaximumOnSuccess() {
+        final var rateLimiter = new RateLimiter(10, 1, 10);
+        rateLimiter.onThrottled();
+
+        rateLimiter.onSuccess();
+        Assertions.assertEquals(5.2, rateLimiter.getPermitsPerSecond(), 0.001);
+
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.onSuccess();
+        }
+        Assertions.assertEquals(10, rateLimiter.getPermitsPerSecond(), 0.001);
+    }
+
+    @Test
+    void shouldHandOutBurstWithoutWaiting() throws InterruptedException {
+        final var rateLimiter = new RateLimiter(1, 1, 5);
+
+        final var start = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.acquire();
+        }
+        Assertions.assertTrue(System.nanoTime() - start < 500_000_000L);
+    }
+}
@@ -0,0 +1,108 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.ReorderPlan;
+import com.google.api.services.youtube.model.PlaylistItem;
+import com.google.api.services.youtube.model.PlaylistItemSnippet;
+import com.google.api.services.youtube.model.ResourceId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+class ReorderPlannerTest {
+
+    @Test
+    void shouldPlanNoMovesForSortedPlaylist() {
+        final var sortedVideos = createPlaylist("A", "B", "C", "D");
+
+        final var actualPlan = ReorderPlanner.plan("playlist", sortedVideos);
+        Assertions.assertEquals(0, actualPlan.getMoveCount());
+        Assertions.assertEquals(0, actualPlan.getQuotaCost());
+    }
+
+    @Test
+    void shouldPlanSingleMoveForSingleDisplacedVideo() {
+        final var sortedVideos = sortByTitle(createPlaylist("B", "C", "D", "E", "A"));
+
+        final var actualPlan = ReorderPlanner.plan("playlist", sortedVideos);
+        Assertions.assertEquals(1, actualPlan.getMoveCount());
+        Assertions.assertEquals(50, actualPlan.getQuotaCost());
+        Assertions.assertEquals("A", actualPlan.moves().getFirst().title());
+        Assertions.assertEquals(4, actualPlan.moves().getFirst().fromPosition());
+        Assertions.assertEquals(0, actualPlan.moves().getFirst().toPosition());
+    }
+
+    @Test
+    void shouldPlanAllButOneMoveForReversedPlaylist() {
+        final var sortedVideos = sortByTitle(createPlaylist("E", "D", "C", "B", "A"));
+
+        final var actualPlan = ReorderPlanner.plan("playlist", sortedVideos);
+        Assertions.assertEquals(4, actualPlan.getMoveCount());
+        Assertions.assertEquals(List.of("A", "B", "C", "D", "E"), applyPlan(List.of("E", "D", "C", "B", "A"), actualPlan));
+    }
+
+    @Test
+    void shouldPlanMovesThatSortPlaylistWhenAppliedInOrder() {
+        final var currentTitles = List.of("F", "A", "C", "H", "B", "G", "D", "E");
+        final var sortedVideos = sortByTitle(createPlaylist(currentTitles.toArray(String[]::new)));
+
+        final var actualPlan = ReorderPlanner.plan("playlist", sortedVideos);
+        // 4 of the 8 videos are already in sorted relative order (e.g. A C D E)
+        Assertions.assertEquals(4, actualPlan.getMoveCount());
+        Assertions.assertEquals(List.of("A", "B", "C", "D", "E", "F", "G", "H"), applyPlan(currentTitles, actualPlan));
+    }
+
+    @Test
+    void shouldPlanMovesThatSortLargeShuffledPlaylist() {
+        final List<String> currentTitles = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            currentTitles.add("%04d".formatted(i));
+        }
+        Collections.shuffle(currentTitles, new Random(42));
+        final var sortedVideos = sortByTitle(createPlaylist(currentTitles.toArray(String[]::new)));
+
+        final var actualPlan = ReorderPlanner.plan("playlist", sortedVideos);
+        Assertions.assertEquals(currentTitles.stream().sorted().toList(), applyPlan(currentTitles, actualPlan));
+    }
+
+    @Test
+    void shouldGetLongestIncreasingSubsequence() {
+        final var actualSubsequence = ReorderPlanner.getLongestIncreasingSubsequence(new int[]{3, 0, 1, 7, 2, 6, 4, 5});
+        Assertions.assertArrayEquals(new int[]{0, 1, 2, 4, 5}, actualSubsequence);
+    }
+
+    private static List<String> applyPlan(final List<String> currentTitles, final ReorderPlan plan) {
+        final var playlist = new ArrayList<>(currentTitles);
+        for (final var move : plan.moves()) {
+            Assertions.assertEquals(move.title(), playlist.get((int) move.fromPosition()));
+            playlist.remove((int) move.fromPosition());
+            playlist.add((int) move.toPosition(), move.title());
+        }
+        return playlist;
+    }
+
+    private static List<PlaylistItem> sortByTitle(final List<PlaylistItem> videos) {
+        videos.sort(Comparator.comparing(video -> video.getSnippet().getTitle()));
+        return videos;
+    }
+
+    private static List<PlaylistItem> createPlaylist(final String... videoTitles) {
+        final List<PlaylistItem> videos = new ArrayList<>();
+        for (int i = 0; i < videoTitles.length; i++) {
+            final var snippet = new PlaylistItemSnippet();
+            snippet.setTitle(videoTitles[i]);
+            snippet.setPosition((long) i);
+            snippet.setResourceId(new ResourceId().setVideoId("video" + videoTitles[i]));
+
+            final var playlistItem = new PlaylistItem();
+            playlistItem.setId("item" + videoTitles[i]);
+            playlistItem.setSnippet(snippet);
+            videos.add(playlistItem);
+        }
+        return videos;
+    }
+}
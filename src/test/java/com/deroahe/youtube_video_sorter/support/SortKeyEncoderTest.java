@@ -0,0 +1,72 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import com.deroahe.youtube_video_sorter.support.model.SortType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+class SortKeyEncoderTest {
+
+    @Test
+    void shouldSortNumbersInTitlesByValue() {
+        final var titles = new String[]{"Part 10", "part 2", "Part 1b", "Part", "Part 1", "10 things", "Part 2 extended"};
+        final var expectedTitles = List.of("10 things", "Part", "Part 1", "Part 1b", "part 2", "Part 2 extended", "Part 10");
+
+        Assertions.assertEquals(expectedTitles, sort(titles, SortType.NATURAL, true));
+    }
+
+    @Test
+    void shouldSortNumbersInTitlesByValueDescending() {
+        final var titles = new String[]{"Part 9", "Part 10", "Part 010"};
+        final var expectedTitles = List.of("Part 10", "Part 010", "Part 9");
+
+        Assertions.assertEquals(expectedTitles, sort(titles, SortType.NATURAL, false));
+    }
+
+    @Test
+    void shouldSortAccentedLettersNextToUnaccentedOnes() {
+        final var titles = new String[]{"Zebra", "Éclair", "eclair", "Apple", "ecume"};
+        final var expectedTitles = List.of("Apple", "eclair", "Éclair", "ecume", "Zebra");
+
+        Assertions.assertEquals(expectedTitles, sort(titles, SortType.COLLATED, true));
+    }
+
+    @Test
+    void shouldSortBySeriesThenEpisodeThenTitle() {
+        final var titles = new String[]{
+                "KILL TONY #330 - PHILADELPHIA",
+                "Bonus Episode",
+                "Kill Tony #94 (Jeff Ross)",
+                "Bill Burr Podcast 12",
+                "KILL TONY #94 (Andrew Schulz)",
+                "Bill Burr Podcast - 3"
+        };
+        final var expectedTitles = List.of(
+                "Bill Burr Podcast - 3",
+                "Bill Burr Podcast 12",
+                "Bonus Episode",
+                "KILL TONY #94 (Andrew Schulz)",
+                "Kill Tony #94 (Jeff Ross)",
+                "KILL TONY #330 - PHILADELPHIA"
+        );
+
+        Assertions.assertEquals(expectedTitles, sort(titles, SortType.SERIES_EPISODE_TITLE, true));
+    }
+
+    @Test
+    void shouldKeepRelativeOrderOfEqualKeys() {
+        final var titles = new String[]{"Episode 2", "episode 02", "EPISODE 2"};
+
+        Assertions.assertEquals(List.of(titles), sort(titles, SortType.NATURAL, true));
+        Assertions.assertEquals(List.of(titles), sort(titles, SortType.NATURAL, false));
+    }
+
+    private static List<String> sort(final String[] titles, final SortType sortType, final boolean ascending) {
+        return Arrays.stream(SortMethods.getSortedIndexes(titles, sortType, ascending, Locale.ENGLISH))
+                .mapToObj(index -> titles[index])
+                .toList();
+    }
+}
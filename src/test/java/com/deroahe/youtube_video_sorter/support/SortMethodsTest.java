@@ -1,12 +1,15 @@
 package com.deroahe.youtube_video_sorter.support;
 
+import com.deroahe.youtube_video_sorter.support.model.VideoMetadata;
 import com.google.api.services.youtube.model.PlaylistItem;
 import com.google.api.services.youtube.model.PlaylistItemSnippet;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 class SortMethodsTest {
 
@@ -90,6 +93,46 @@ class SortMethodsTest {
         Assertions.assertEquals(expectedOutputVideoTitles, actualOutputVideoTitles);
     }
 
+    @Test
+    void shouldKeepRelativeOrderOfEqualNumbersWhenSortingDescending() {
+        final var inputVideoTitles = new ArrayList<>(List.of(
+                createPlaylistItem("KT #2 - first"),
+                createPlaylistItem("KT #1 - first"),
+                createPlaylistItem("KT #2 - second"),
+                createPlaylistItem("no number"),
+                createPlaylistItem("KT #1 - second")
+        ));
+        final var expectedOutputVideoTitles = List.of(
+                createPlaylistItem("KT #2 - first"),
+                createPlaylistItem("KT #2 - second"),
+                createPlaylistItem("KT #1 - first"),
+                createPlaylistItem("KT #1 - second"),
+                createPlaylistItem("no number")
+        );
+        final var actualOutputVideoTitles = SortMethods.getSortedNumerical(inputVideoTitles, false);
+        Assertions.assertEquals(expectedOutputVideoTitles, actualOutputVideoTitles);
+    }
+
+    @Test
+    void shouldSortLikeStableTitleComparator() {
+        final var random = new Random(42);
+        final List<PlaylistItem> inputVideos = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            inputVideos.add(createPlaylistItem((random.nextBoolean() ? "Part " : "part ") + random.nextInt(100)));
+        }
+
+        for (final var ascending : List.of(true, false)) {
+            final Comparator<PlaylistItem> titleComparator = Comparator.comparing(video -> video.getSnippet().getTitle().toLowerCase());
+            final var expectedOutputVideos = new ArrayList<>(inputVideos);
+            expectedOutputVideos.sort(ascending ? titleComparator : titleComparator.reversed());
+
+            final var actualOutputVideos = SortMethods.getSortedAlphabetical(new ArrayList<>(inputVideos), ascending);
+            for (int i = 0; i < expectedOutputVideos.size(); i++) {
+                Assertions.assertSame(expectedOutputVideos.get(i), actualOutputVideos.get(i));
+            }
+        }
+    }
+
     @Test
     void shouldExtractVideoNumberWithHashtagFollowedByNumber() {
         final var inputVideoTitle = "Kill Tony #94 (Jeff Ross, Moshe Kasher, Willie Hunter)";
@@ -117,6 +160,14 @@ class SortMethodsTest {
         Assertions.assertEquals(expectedVideoNumber, actualVideoNumber);
     }
 
+    @Test
+    void shouldGetSortedKeyIndexesWithUnknownKeysLastInBothOrders() {
+        final long[] inputKeys = {30, VideoMetadata.UNKNOWN_SORT_KEY, 10, 20, 10};
+
+        Assertions.assertArrayEquals(new int[]{2, 4, 3, 0, 1}, SortMethods.getSortedKeyIndexes(inputKeys, true));
+        Assertions.assertArrayEquals(new int[]{0, 3, 2, 4, 1}, SortMethods.getSortedKeyIndexes(inputKeys, false));
+    }
+
     private static PlaylistItem createPlaylistItem(final String videoTitle) {
         final var snippet = new PlaylistItemSnippet();
         snippet.setTitle(videoTitle);
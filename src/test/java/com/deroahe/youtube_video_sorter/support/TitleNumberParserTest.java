@@ -0,0 +1,54 @@
+package com.deroahe.youtube_video_sorter.support;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class TitleNumberParserTest {
+
+    @Test
+    void shouldParseHashtagNumberAfterBareNumber() {
+        Assertions.assertEquals(330, TitleNumberParser.parse("2019 KILL TONY #330 - PHILADELPHIA"));
+    }
+
+    @Test
+    void shouldParseFirstBareNumberWithoutHashtagNumber() {
+        Assertions.assertEquals(86, TitleNumberParser.parse("Kill Tony 86 (Russell Peters, Jesus Trejo) # 12"));
+    }
+
+    @Test
+    void shouldParseZeroWithoutDigits() {
+        Assertions.assertEquals(0, TitleNumberParser.parse("Kill Tony Live From Montreal #"));
+        Assertions.assertEquals(0, TitleNumberParser.parse(""));
+    }
+
+    @Test
+    void shouldParseNumbersInOtherScripts() {
+        Assertions.assertEquals(123, TitleNumberParser.parse("حلقة #١٢٣"));
+        Assertions.assertEquals(45, TitleNumberParser.parse("エピソード ４５"));
+        Assertions.assertEquals(7, TitleNumberParser.parse("Episode 𝟕"));
+    }
+
+    @Test
+    void shouldEndNumberWhereDigitScriptChanges() {
+        Assertions.assertEquals(12, TitleNumberParser.parse("#12٣"));
+    }
+
+    @Test
+    void shouldSaturateNumbersTooLargeForLong() {
+        Assertions.assertEquals(Long.MAX_VALUE, TitleNumberParser.parse("#9223372036854775808"));
+        Assertions.assertEquals(Long.MAX_VALUE, TitleNumberParser.parse("Episode 123456789012345678901234567890"));
+        Assertions.assertEquals(Long.MAX_VALUE, TitleNumberParser.parse("#9223372036854775807"));
+    }
+
+    @Test
+    void shouldFindIndexOfParsedNumber() {
+        Assertions.assertEquals(16, TitleNumberParser.indexOf("2019 KILL TONY #330"));
+        Assertions.assertEquals(10, TitleNumberParser.indexOf("Kill Tony 86 #"));
+        Assertions.assertEquals(-1, TitleNumberParser.indexOf("Kill Tony"));
+    }
+
+    @Test
+    void shouldParseCharSequences() {
+        Assertions.assertEquals(94, TitleNumberParser.parse(new StringBuilder("Kill Tony #94")));
+    }
+}
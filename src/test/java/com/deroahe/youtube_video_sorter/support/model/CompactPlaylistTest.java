@@ -0,0 +1,101 @@
+package com.deroahe.youtube_video_sorter.support.model;
+
+import com.google.api.services.youtube.model.PlaylistItem;
+import com.google.api.services.youtube.model.PlaylistItemSnippet;
+import com.google.api.services.youtube.model.ResourceId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class CompactPlaylistTest {
+
+    @Test
+    void shouldShareRepeatedTitlesAndVideoIds() {
+        final var playlist = CompactPlaylist.of("playlist", List.of(
+                createPlaylistItem("item1", "video1", new String("Deleted video"), 0L),
+                createPlaylistItem("item2", "video2", "Kill Tony #94", 1L),
+                createPlaylistItem("item3", new String("video1"), new String("Deleted video"), 2L)
+        ));
+
+        Assertions.assertEquals(3, playlist.size());
+        Assertions.assertSame(playlist.getTitle(0), playlist.getTitle(2));
+        Assertions.assertSame(playlist.getVideoId(0), playlist.getVideoId(2));
+        Assertions.assertEquals("item3", playlist.getPlaylistItemId(2));
+        Assertions.assertEquals(2, playlist.getPosition(2));
+    }
+
+    @Test
+    void shouldGrowPastFirstPage() {
+        final var builder = new CompactPlaylist.Builder("playlist");
+        for (int i = 0; i < 120; i++) {
+            builder.add(createPlaylistItem("item" + i, "video" + i, "Video " + i, (long) i));
+        }
+
+        final var playlist = builder.build();
+        Assertions.assertEquals(120, playlist.size());
+        Assertions.assertEquals("Video 119", playlist.getTitle(119));
+        Assertions.assertEquals(119, playlist.getPosition(119));
+    }
+
+    @Test
+    void shouldConvertBackToPlaylistItem() {
+        final var playlist = CompactPlaylist.of("playlist", List.of(
+                createPlaylistItem("item1", "video1", "Kill Tony #94", 7L),
+                createPlaylistItem("item2", null, "Private video", null)
+        ));
+
+        Assertions.assertFalse(playlist.isAvailable(1));
+
+        final var firstItem = playlist.toPlaylistItem(0);
+        Assertions.assertEquals("item1", firstItem.getId());
+        Assertions.assertEquals("playlist", firstItem.getSnippet().getPlaylistId());
+        Assertions.assertEquals("Kill Tony #94", firstItem.getSnippet().getTitle());
+        Assertions.assertEquals(Long.valueOf(7), firstItem.getSnippet().getPosition());
+        Assertions.assertEquals("video1", firstItem.getSnippet().getResourceId().getVideoId());
+
+        final var secondItem = playlist.toPlaylistItem(1);
+        Assertions.assertEquals(CompactPlaylist.UNKNOWN_POSITION, playlist.getPosition(1));
+        Assertions.assertNull(secondItem.getSnippet().getPosition());
+        Assertions.assertNull(secondItem.getSnippet().getResourceId());
+    }
+
+    @Test
+    void shouldShiftPositionsPastRemovedVideos() {
+        final var playlist = CompactPlaylist.of("playlist", List.of(
+                createPlaylistItem("item1", "video1", "Kill Tony #1", 0L),
+                createPlaylistItem("item2", "video2", "Deleted video", 1L),
+                createPlaylistItem("item3", "video3", "Kill Tony #3", 2L),
+                createPlaylistItem("item4", "video1", "Kill Tony #1", 3L),
+                createPlaylistItem("item5", "video5", "Kill Tony #5", 4L)
+        ));
+
+        final var actualPlaylist = playlist.without(List.of(
+                new PlaylistRemoval("item2", "video2", "Deleted video", 1, RemovalReason.UNAVAILABLE),
+                new PlaylistRemoval("item4", "video1", "Kill Tony #1", 3, RemovalReason.DUPLICATE)
+        ));
+        Assertions.assertEquals(3, actualPlaylist.size());
+        Assertions.assertTrue(actualPlaylist.isAvailable(2));
+        Assertions.assertEquals("item3", actualPlaylist.getPlaylistItemId(1));
+        Assertions.assertEquals(1, actualPlaylist.getPosition(1));
+        Assertions.assertEquals("item5", actualPlaylist.getPlaylistItemId(2));
+        Assertions.assertEquals(2, actualPlaylist.getPosition(2));
+    }
+
+    private static PlaylistItem createPlaylistItem(final String playlistItemId, final String videoId,
+                                                   final String videoTitle, final Long position) {
+        final var snippet = new PlaylistItemSnippet();
+        snippet.setTitle(videoTitle);
+        snippet.setPosition(position);
+        if (videoId != null) {
+            snippet.setResourceId(new ResourceId().setVideoId(videoId));
+            snippet.set("videoOwnerChannelId", "channel");
+        }
+
+        final var playlistItem = new PlaylistItem();
+        playlistItem.setId(playlistItemId);
+        playlistItem.setSnippet(snippet);
+
+        return playlistItem;
+    }
+}